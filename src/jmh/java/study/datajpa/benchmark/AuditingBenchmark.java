@@ -0,0 +1,98 @@
+package study.datajpa.benchmark;
+
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberJpaRepository;
+import study.datajpa.repository.TeamJpaRepository;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Auditing 비용.
+ * - auditedInsert(Member, BaseEntity 상속) 와 plainInsert(Team, Auditing 없음) 의 차이가 insert 1건당 Auditing 비용
+ * - auditor 조회 : 호출마다 UUID.randomUUID() vs 트랜잭션 단위로 한 번 (멀티 스레드에서 SecureRandom 경합 확인)
+ * insert 는 롤백해서 데이터가 쌓이지 않게 한다.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AuditingBenchmark {
+
+    private static final int INSERTS_PER_TX = 100;
+
+    ConfigurableApplicationContext context;
+    TransactionTemplate tx;
+    EntityManager em;
+    MemberJpaRepository memberJpaRepository;
+    TeamJpaRepository teamJpaRepository;
+    AuditorAware<String> auditorProvider;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        context = BenchmarkSupport.start();
+        tx = BenchmarkSupport.transactionTemplate(context);
+        em = BenchmarkSupport.entityManager(context);
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        teamJpaRepository = context.getBean(TeamJpaRepository.class);
+        auditorProvider = context.getBean("auditorProvider", AuditorAware.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INSERTS_PER_TX)
+    public void auditedInsert() {
+        tx.executeWithoutResult(status -> {
+            status.setRollbackOnly();
+            for (int i = 0; i < INSERTS_PER_TX; i++) {
+                memberJpaRepository.save(new Member("member" + i, i));
+            }
+            em.flush();
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INSERTS_PER_TX)
+    public void plainInsert() {
+        tx.executeWithoutResult(status -> {
+            status.setRollbackOnly();
+            for (int i = 0; i < INSERTS_PER_TX; i++) {
+                teamJpaRepository.save(new Team("team" + i));
+            }
+            em.flush();
+        });
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Optional<String> auditorPerCall() {
+        return Optional.of(UUID.randomUUID().toString());
+    }
+
+    @Benchmark
+    @Threads(4)
+    @OperationsPerInvocation(INSERTS_PER_TX)
+    public String auditorPerTransaction() {
+        return tx.execute(status -> {
+            String auditor = null;
+            for (int i = 0; i < INSERTS_PER_TX; i++) {
+                auditor = auditorProvider.getCurrentAuditor().orElseThrow();
+            }
+            return auditor;
+        });
+    }
+}
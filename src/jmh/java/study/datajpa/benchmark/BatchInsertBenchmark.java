@@ -0,0 +1,65 @@
+package study.datajpa.benchmark;
+
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberJpaRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 대량 insert. flushEvery = 1 이면 엔티티마다 flush 하기 때문에 JDBC 배치가 적용되지 않고,
+ * hibernate.jdbc.batch_size(100) 이상이면 배치 insert + 풀링된 시퀀스로 저장한다.
+ * 1회 실행 시간이 길어서 SingleShotTime 으로 측정.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class BatchInsertBenchmark {
+
+    @Param({"1000000"})
+    int rows;
+
+    @Param({"1", "100", "1000"})
+    int flushEvery;
+
+    ConfigurableApplicationContext context;
+    TransactionTemplate tx;
+    EntityManager em;
+    MemberJpaRepository memberJpaRepository;
+    List<Member> members;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start();
+        tx = BenchmarkSupport.transactionTemplate(context);
+        em = BenchmarkSupport.entityManager(context);
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void prepareIteration() {
+        tx.executeWithoutResult(status -> em.createQuery("delete from Member").executeUpdate());
+        members = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            members.add(new Member("member" + i, i % 100));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void saveAllBatched() {
+        tx.executeWithoutResult(status -> memberJpaRepository.saveAllBatched(members, flushEvery));
+    }
+}
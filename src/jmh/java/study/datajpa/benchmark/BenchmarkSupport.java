@@ -0,0 +1,96 @@
+package study.datajpa.benchmark;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.DataJpaApplication;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberJpaRepository;
+import study.datajpa.repository.TeamJpaRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 벤치마크 공통. 내장 H2(메모리) 로 애플리케이션 컨텍스트를 띄우고 테스트 데이터를 넣는다.
+ * SQL 로그는 측정에 영향을 주기 때문에 끈다.
+ */
+public final class BenchmarkSupport {
+
+    public static final int MEMBERS_PER_TEAM = 10;
+    private static final int BATCH_SIZE = 1000;
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * properties 는 "key=value" 형식. application.yml 보다 우선하도록 커맨드라인 인자로 넘긴다.
+     */
+    public static ConfigurableApplicationContext start(String... properties) {
+        return start(WebApplicationType.NONE, properties);
+    }
+
+    /** 임의 포트로 내장 톰캣까지 띄운다. 포트는 port(context) 로 확인 */
+    public static ConfigurableApplicationContext startWeb(String... properties) {
+        List<String> args = new ArrayList<>(List.of(properties));
+        args.add("server.port=0");
+        return start(WebApplicationType.SERVLET, args.toArray(String[]::new));
+    }
+
+    public static int port(ConfigurableApplicationContext context) {
+        return ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    private static ConfigurableApplicationContext start(WebApplicationType type, String... properties) {
+        List<String> args = new ArrayList<>(List.of(
+                "spring.datasource.url=jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                "decorator.datasource.p6spy.enable-logging=false",
+                "logging.level.root=warn"));
+        args.addAll(List.of(properties));
+        return new SpringApplicationBuilder(DataJpaApplication.class)
+                .web(type)
+                .run(args.stream().map(arg -> "--" + arg).toArray(String[]::new));
+    }
+
+    /** 리포지토리 빈은 프록시라서 필드에 직접 접근할 수 없기 때문에, 트랜잭션에 묶이는 공유 EntityManager 를 따로 만든다. */
+    public static EntityManager entityManager(ConfigurableApplicationContext context) {
+        return SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+    }
+
+    public static TransactionTemplate transactionTemplate(ConfigurableApplicationContext context) {
+        return new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    /**
+     * size 명의 회원을 MEMBERS_PER_TEAM 명씩 팀에 나눠서 저장한다.
+     * 나이는 10 ~ 59, username 은 member0 ~ member{size-1}
+     */
+    public static void insertMembers(ConfigurableApplicationContext context, int size) {
+        MemberJpaRepository memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        TeamJpaRepository teamJpaRepository = context.getBean(TeamJpaRepository.class);
+
+        transactionTemplate(context).executeWithoutResult(status -> {
+            List<Team> teams = new ArrayList<>();
+            for (int i = 0; i < (size + MEMBERS_PER_TEAM - 1) / MEMBERS_PER_TEAM; i++) {
+                teams.add(new Team("team" + i));
+            }
+            teamJpaRepository.saveAllBatched(teams, BATCH_SIZE);
+
+            List<Member> members = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                Member member = new Member("member" + i, 10 + i % 50);
+                member.setTeam(teams.get(i / MEMBERS_PER_TEAM));
+                members.add(member);
+            }
+            memberJpaRepository.saveAllBatched(members, BATCH_SIZE);
+        });
+    }
+}
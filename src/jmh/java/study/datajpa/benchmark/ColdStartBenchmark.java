@@ -0,0 +1,67 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 배포 직후(readiness 이후) 첫 요청들의 응답시간. 측정 반복 하나가 요청 하나이고, 포크마다 JVM 을 새로 띄운다.
+ * 결과의 p0.99 가 포크들의 첫 200 요청 중 p99 : ./gradlew jmh -Pjmh.includes=ColdStartBenchmark
+ * warmUp=false 는 워밍업, DispatcherServlet 미리 초기화를 끈 상태 (변경 전과 같은 조건)
+ * 데이터를 넣는 insert 는 측정 대상 조회 쿼리와 겹치지 않는다.
+ */
+@State(Scope.Benchmark)
+@Fork(3)
+@Warmup(iterations = 0)
+@Measurement(iterations = 200)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ColdStartBenchmark {
+
+    @Param({"10000"})
+    int size;
+
+    @Param({"false", "true"})
+    boolean warmUp;
+
+    ConfigurableApplicationContext context;
+    HttpClient client;
+    String baseUrl;
+    String[] paths;
+    int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.startWeb(
+                "datajpa.warm-up.enabled=" + warmUp,
+                "spring.mvc.servlet.load-on-startup=" + (warmUp ? 1 : -1));
+        BenchmarkSupport.insertMembers(context, size);
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        baseUrl = "http://localhost:" + BenchmarkSupport.port(context);
+        paths = new String[]{
+                "/members2/1",
+                "/members/feed?age=20",
+                "/members?age=30&size=20&sort=username,desc",
+                "/teams?size=20&page=3",
+                "/members/1"};
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /** 조회 API 들을 돌아가며 호출 */
+    @Benchmark
+    public int firstRequests() throws IOException, InterruptedException {
+        String path = paths[next++ % paths.length];
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path)).build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,72 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.OptimisticLockingFailureException;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.service.MemberService;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 같은 회원을 동시에 수정할 때 낙관적 락(재시도) vs 비관적 락(select for update) 처리량.
+ * hotRows 가 적을수록 충돌이 잦다. 재시도를 다 써서 실패한 수정은 failed 로 따로 센다.
+ * ./gradlew jmh -Pjmh.includes=ContentionBenchmark
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Threads(8)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ContentionBenchmark {
+
+    @Param({"1", "16", "256"})
+    int hotRows;
+
+    @Param({"optimistic", "pessimistic"})
+    String lock;
+
+    ConfigurableApplicationContext context;
+    MemberService memberService;
+    long[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start(
+                "spring.datasource.hikari.maximum-pool-size=8",
+                "datajpa.retry.optimistic-lock.max-attempts=10",
+                "logging.level.org.hibernate.orm.jdbc.batch=off");     // 충돌할 때마다 남는 StaleStateException 로그
+        memberService = context.getBean(MemberService.class);
+        MemberRepository memberRepository = context.getBean(MemberRepository.class);
+        ids = new long[hotRows];
+        for (int i = 0; i < hotRows; i++) {
+            ids[i] = memberRepository.save(new Member("hot" + i, 0)).getId();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Failures {
+        public long failed;
+    }
+
+    @Benchmark
+    public int update(Failures failures) {
+        long id = ids[ThreadLocalRandom.current().nextInt(ids.length)];
+        try {
+            return "optimistic".equals(lock) ? memberService.addAge(id, 1) : memberService.addAgePessimistic(id, 1);
+        } catch (OptimisticLockingFailureException e) {
+            failures.failed++;
+            return -1;
+        }
+    }
+}
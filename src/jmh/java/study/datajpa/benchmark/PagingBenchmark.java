@@ -0,0 +1,77 @@
+package study.datajpa.benchmark;
+
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.MemberCursor;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberJpaRepository;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OFFSET 페이징 vs 키셋 페이징. 페이지 깊이(offset)가 커질수록 OFFSET 은 느려지고 키셋은 일정해야 한다.
+ * 모든 회원을 같은 나이로 넣어서 age 조건에 전부 걸리게 한다.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PagingBenchmark {
+
+    private static final int AGE = 10;
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"200000"})
+    int size;
+
+    @Param({"0", "10000", "100000"})
+    int offset;
+
+    ConfigurableApplicationContext context;
+    TransactionTemplate tx;
+    EntityManager em;
+    MemberRepository memberRepository;
+    MemberJpaRepository memberJpaRepository;
+    MemberCursor cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start();
+        tx = BenchmarkSupport.transactionTemplate(context);
+        em = BenchmarkSupport.entityManager(context);
+        memberRepository = context.getBean(MemberRepository.class);
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        BenchmarkSupport.insertMembers(context, size);
+        tx.executeWithoutResult(status -> em
+                .createQuery("update Member m set m.age = :age")
+                .setParameter("age", AGE)
+                .executeUpdate());
+
+        /** offset 번째 행 바로 앞의 커서를 미리 구해둔다. (클라이언트가 이전 페이지에서 받은 토큰에 해당) */
+        if (offset > 0) {
+            Member last = tx.execute(status -> memberJpaRepository.findByPage(AGE, offset - 1, 1).get(0));
+            cursor = new MemberCursor(last.getUsername(), last.getId());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Member> offsetPaging() {
+        return tx.execute(status -> memberJpaRepository.findByPage(AGE, offset, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public List<Member> keysetPaging() {
+        return tx.execute(status -> memberRepository.findByAgeKeyset(AGE, cursor, PAGE_SIZE));
+    }
+}
@@ -0,0 +1,63 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.UsernameOnly;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MemberController.findMember 의 읽기 경로. 엔티티 조회 vs Projection 조회
+ * 요청당 할당량은 GC 프로파일러로 비교한다 : ./gradlew jmh -Pjmh.includes=ProjectionBenchmark -Pjmh.profilers=gc
+ * 엔티티 조회는 2차 캐시 영향을 빼기 위해 캐시를 끄고 측정한다.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ProjectionBenchmark {
+
+    @Param({"10000"})
+    int size;
+
+    ConfigurableApplicationContext context;
+    TransactionTemplate tx;
+    MemberRepository memberRepository;
+    long[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start(
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "spring.jpa.properties.hibernate.cache.use_query_cache=false");
+        BenchmarkSupport.insertMembers(context, size);
+        tx = BenchmarkSupport.transactionTemplate(context);
+        memberRepository = context.getBean(MemberRepository.class);
+        tx.setReadOnly(true);
+        ids = tx.execute(status -> memberRepository.findMemberCustom().stream().mapToLong(Member::getId).toArray());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String entity() {
+        long id = ids[ThreadLocalRandom.current().nextInt(ids.length)];
+        return tx.execute(status -> memberRepository.findById(id).map(Member::getUsername).orElse(null));
+    }
+
+    @Benchmark
+    public String projection() {
+        long id = ids[ThreadLocalRandom.current().nextInt(ids.length)];
+        return tx.execute(status -> memberRepository.findProjectionById(id, UsernameOnly.class)
+                .map(UsernameOnly::getUsername).orElse(null));
+    }
+}
@@ -0,0 +1,81 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberReportRepository;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 나이대별 회원 수 리포트. 영속성 컨텍스트로 엔티티를 읽는 방식 vs StatelessSession 으로 한 행씩 읽는 방식.
+ * 메모리는 -Pjmh.profilers=gc 로 할당량(gc.alloc.rate.norm)을 같이 본다.
+ * ./gradlew jmh -Pjmh.includes=ReportBenchmark -Pjmh.profilers=gc
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReportBenchmark {
+
+    private static final int FETCH_SIZE = 1000;
+    private static final int BUCKET_SIZE = 10;
+
+    @Param({"100000"})
+    int size;
+
+    ConfigurableApplicationContext context;
+    TransactionTemplate tx;
+    MemberRepository memberRepository;
+    MemberReportRepository memberReportRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start();
+        tx = BenchmarkSupport.transactionTemplate(context);
+        tx.setReadOnly(true);
+        memberRepository = context.getBean(MemberRepository.class);
+        memberReportRepository = context.getBean(MemberReportRepository.class);
+        BenchmarkSupport.insertMembers(context, size);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /** 읽은 엔티티가 트랜잭션이 끝날 때까지 영속성 컨텍스트에 남는다. */
+    @Benchmark
+    public SortedMap<Integer, Long> persistenceContext() {
+        return tx.execute(status -> {
+            SortedMap<Integer, Long> histogram = new TreeMap<>();
+            memberRepository.forEachMember(FETCH_SIZE, Integer.MAX_VALUE, member -> count(histogram, member));
+            return histogram;
+        });
+    }
+
+    /** forEachMember 가 clearInterval 마다 영속성 컨텍스트를 비우는 경우 */
+    @Benchmark
+    public SortedMap<Integer, Long> persistenceContextCleared() {
+        return tx.execute(status -> {
+            SortedMap<Integer, Long> histogram = new TreeMap<>();
+            memberRepository.forEachMember(FETCH_SIZE, FETCH_SIZE, member -> count(histogram, member));
+            return histogram;
+        });
+    }
+
+    @Benchmark
+    public SortedMap<Integer, Long> statelessSession() {
+        return memberReportRepository.ageHistogram(BUCKET_SIZE, FETCH_SIZE);
+    }
+
+    private static void count(SortedMap<Integer, Long> histogram, Member member) {
+        histogram.merge(member.getAge() / BUCKET_SIZE * BUCKET_SIZE, 1L, Long::sum);
+    }
+}
@@ -0,0 +1,133 @@
+package study.datajpa.benchmark;
+
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberJpaRepository;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 리포지토리 계층 비교
+ * - 순수 JPA(MemberJpaRepository) vs 스프링 데이터 JPA(MemberRepository)
+ * - fetch join vs @EntityGraph vs 지연 로딩
+ * - 페이징 vs 전체 조회
+ * - 벌크 update vs 엔티티 변경감지 update
+ * 모든 호출은 새 트랜잭션(=새 영속성 컨텍스트)에서 실행하고, update 는 롤백해서 데이터가 바뀌지 않게 한다.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RepositoryBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    int size;
+
+    ConfigurableApplicationContext context;
+    TransactionTemplate tx;
+    EntityManager em;
+    MemberRepository memberRepository;
+    MemberJpaRepository memberJpaRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start();
+        BenchmarkSupport.insertMembers(context, size);
+        tx = BenchmarkSupport.transactionTemplate(context);
+        em = BenchmarkSupport.entityManager(context);
+        memberRepository = context.getBean(MemberRepository.class);
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Member> jpaFindByUsernameAndAge() {
+        return tx.execute(status -> memberJpaRepository.findByUsernameAndAgeGreaterThan("member1", 10));
+    }
+
+    @Benchmark
+    public List<Member> springDataFindByUsernameAndAge() {
+        return tx.execute(status -> memberRepository.findByUsernameAndAgeGreaterThan("member1", 10));
+    }
+
+    @Benchmark
+    public long jpaCount() {
+        return tx.execute(status -> memberJpaRepository.count());
+    }
+
+    @Benchmark
+    public long springDataCount() {
+        return tx.execute(status -> memberRepository.count());
+    }
+
+    @Benchmark
+    public void fetchJoin(Blackhole bh) {
+        tx.executeWithoutResult(status -> touchTeams(memberRepository.findMemberFetchJoin(), bh));
+    }
+
+    @Benchmark
+    public void entityGraph(Blackhole bh) {
+        tx.executeWithoutResult(status -> touchTeams(memberRepository.findMemberEntityGraph(), bh));
+    }
+
+    /** default_batch_fetch_size 가 적용되기 때문에 N+1 이 아니라 1 + N/100 번 조회 */
+    @Benchmark
+    public void lazyLoading(Blackhole bh) {
+        tx.executeWithoutResult(status -> touchTeams(memberRepository.findMemberCustom(), bh));
+    }
+
+    @Benchmark
+    public List<Member> paged() {
+        return tx.execute(status -> memberRepository.findByAge(10, PageRequest.of(0, 20)).getContent());
+    }
+
+    @Benchmark
+    public List<Member> unpaged() {
+        return tx.execute(status -> memberJpaRepository.findAll());
+    }
+
+    @Benchmark
+    public int bulkUpdate() {
+        return tx.execute(status -> {
+            status.setRollbackOnly();
+            return memberRepository.bulkAgePlus(30);
+        });
+    }
+
+    @Benchmark
+    public int dirtyCheckingUpdate() {
+        return tx.execute(status -> {
+            status.setRollbackOnly();
+            int count = 0;
+            for (Member member : memberJpaRepository.findAll()) {
+                if (member.getAge() >= 30) {
+                    member.setAge(member.getAge() + 1);
+                    count++;
+                }
+            }
+            em.flush();
+            return count;
+        });
+    }
+
+    private void touchTeams(List<Member> members, Blackhole bh) {
+        for (Member member : members) {
+            if (member.getTeam() != null) {
+                bh.consume(member.getTeam().getName());
+            }
+        }
+    }
+}
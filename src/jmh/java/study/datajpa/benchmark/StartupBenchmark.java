@@ -0,0 +1,44 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 새 JVM 에서 애플리케이션을 띄우고 첫 응답을 받기까지 걸리는 시간. 포크 하나가 측정 한 번이다.
+ * lazy 리포지토리는 첫 요청에서 초기화되기 때문에 readiness 가 아니라 첫 응답까지 잰다.
+ * ./gradlew jmh -Pjmh.includes=StartupBenchmark
+ * 단계별 시간은 애플리케이션을 직접 실행해서 StartupTimingReporter 로그로 확인
+ */
+@State(Scope.Benchmark)
+@Fork(3)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StartupBenchmark {
+
+    @Param({"default", "fast-startup"})
+    String profile;
+
+    ConfigurableApplicationContext context;
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int startToFirstResponse() throws IOException, InterruptedException {
+        context = BenchmarkSupport.startWeb("spring.profiles.active=" + profile);
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        URI uri = URI.create("http://localhost:" + BenchmarkSupport.port(context) + "/members?age=0&size=20");
+        return client.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,69 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 플랫폼 스레드 vs 가상 스레드 요청 처리. 커넥션 풀(10) 보다 훨씬 많은 동시 요청(@Threads)을 보낸다.
+ * 처리량과 응답시간 분포(p0.99)를 같이 본다 : ./gradlew jmh -Pjmh.includes=WebLoadBenchmark
+ * 동시 요청 제한을 끄고 비교하려면 -Pjmh.args='-p concurrencyLimit=false'
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Threads(200)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class WebLoadBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"10000"})
+    int size;
+
+    @Param({"false", "true"})
+    boolean virtualThreads;
+
+    @Param({"true"})
+    boolean concurrencyLimit;
+
+    ConfigurableApplicationContext context;
+    HttpClient client;
+    String baseUrl;
+    int pages;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.startWeb(
+                "spring.datasource.hikari.maximum-pool-size=10",
+                "datajpa.web.virtual-threads=" + virtualThreads,
+                "datajpa.web.concurrency-limit.enabled=" + concurrencyLimit,
+                "datajpa.web.concurrency-limit.acquire-timeout=30s");   // 503 없이 대기 시간까지 응답시간에 포함
+        BenchmarkSupport.insertMembers(context, size);
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        baseUrl = "http://localhost:" + BenchmarkSupport.port(context);
+        pages = size / BenchmarkSupport.MEMBERS_PER_TEAM / PAGE_SIZE;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /** 팀 페이지 + 팀별 회원 배치 조회 */
+    @Benchmark
+    public int teams() throws IOException, InterruptedException {
+        int page = ThreadLocalRandom.current().nextInt(pages);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/teams?size=" + PAGE_SIZE + "&page=" + page)).build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
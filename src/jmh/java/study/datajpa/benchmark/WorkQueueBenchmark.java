@@ -0,0 +1,87 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.service.MemberWorkQueue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 처리 안 된 회원 backlog 명을 workers 개의 워커가 MemberWorkQueue 로 나눠서 처리하는 데 걸리는 시간.
+ * 잠긴 행을 기다리지 않고 건너뛰기 때문에(skip locked) 워커가 늘면 시간이 줄어야 한다.
+ * 회원 한 명당 처리 시간은 1ms 로 흉내낸다. ./gradlew jmh -Pjmh.includes=WorkQueueBenchmark
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class WorkQueueBenchmark {
+
+    static final int BATCH_SIZE = 10;
+
+    @Param({"1", "2", "4", "8"})
+    int workers;
+
+    @Param({"200"})
+    int backlog;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+    MemberWorkQueue memberWorkQueue;
+    ExecutorService pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start("spring.datasource.hikari.maximum-pool-size=" + Math.max(10, workers));
+        memberRepository = context.getBean(MemberRepository.class);
+        memberWorkQueue = context.getBean(MemberWorkQueue.class);
+        pool = Executors.newFixedThreadPool(workers);
+    }
+
+    /** 측정마다 처리할 회원을 새로 넣는다. (측정 시간에 포함되지 않음) */
+    @Setup(Level.Iteration)
+    public void fillBacklog() {
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < backlog; i++) {
+            members.add(new Member("work" + i, 20));
+        }
+        memberRepository.saveAll(members);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdownNow();
+        context.close();
+    }
+
+    @Benchmark
+    public void drain() throws Exception {
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < workers; i++) {
+            futures.add(pool.submit(() -> {
+                while (memberWorkQueue.processNext(BATCH_SIZE, member -> sleep(1)) > 0) {
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
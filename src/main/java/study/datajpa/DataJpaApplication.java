@@ -2,23 +2,54 @@ package study.datajpa;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.context.annotation.Bean;
+import org.springframework.data.auditing.DateTimeProvider;
 import org.springframework.data.domain.AuditorAware;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.retry.annotation.EnableRetry;
+import study.datajpa.config.TransactionScopedValue;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 
-@EnableJpaAuditing
+@EnableJpaAuditing(dateTimeProviderRef = "auditingDateTimeProvider")
+@EnableRetry
 @SpringBootApplication
 public class DataJpaApplication {
 
+	/** 시작 단계별 시간을 모아둔다. (StartupTimingReporter, /actuator/startup) */
+	private static final int STARTUP_STEPS = 10_000;
+
 	public static void main(String[] args) {
-		SpringApplication.run(DataJpaApplication.class, args);
+		SpringApplication application = new SpringApplication(DataJpaApplication.class);
+		application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS));
+		application.run(args);
 	}
 
+	/**
+	 * 등록자/수정자와 등록/수정 시각은 트랜잭션마다 한 번만 구해서, 그 트랜잭션에서 flush 되는 엔티티에 모두 같은 값을 넣는다.
+	 * (엔티티마다 UUID.randomUUID() 를 호출하면 SecureRandom 에서 경합이 생김)
+	 */
 	@Bean
 	public AuditorAware<String> auditorProvider() {
-		return () -> Optional.of(UUID.randomUUID().toString());
+		TransactionScopedValue<String> auditor = new TransactionScopedValue<>(() -> randomUUID().toString());
+		return () -> Optional.of(auditor.get());
+	}
+
+	@Bean
+	public DateTimeProvider auditingDateTimeProvider() {
+		TransactionScopedValue<LocalDateTime> now = new TransactionScopedValue<>(LocalDateTime::now);
+		return () -> Optional.of(now.get());
+	}
+
+	/** SecureRandom 대신 ThreadLocalRandom 으로 만든 version 4 UUID. 보안 토큰 용도로는 쓰면 안 됨 */
+	private static UUID randomUUID() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		long msb = (random.nextLong() & 0xffffffffffff0fffL) | 0x0000000000004000L;
+		long lsb = (random.nextLong() & 0x3fffffffffffffffL) | 0x8000000000000000L;
+		return new UUID(msb, lsb);
 	}
 }
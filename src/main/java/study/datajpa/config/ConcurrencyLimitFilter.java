@@ -0,0 +1,71 @@
+package study.datajpa.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 동시에 처리하는 요청 수를 커넥션 풀 크기로 제한한다.
+ * 초과한 요청은 커넥션 풀 안에서 기다리지 않고 여기서 기다리고(가상 스레드라면 거의 비용이 없음),
+ * acquireTimeout 안에 차례가 오지 않으면 503 으로 바로 돌려보낸다.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final long acquireTimeoutMillis;
+    private final Counter rejected;
+
+    public ConcurrencyLimitFilter(int maxConcurrentRequests, Duration acquireTimeout, MeterRegistry meterRegistry) {
+        this.permits = new Semaphore(maxConcurrentRequests, true);
+        this.acquireTimeoutMillis = acquireTimeout.toMillis();
+        this.rejected = Counter.builder("http.server.requests.rejected")
+                .description("동시 요청 제한으로 거절된 요청 수")
+                .register(meterRegistry);
+        Gauge.builder("http.server.requests.waiting", permits, Semaphore::getQueueLength)
+                .description("동시 요청 제한으로 대기중인 요청 수")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejected.increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /** 헬스 체크/메트릭 조회(/actuator/**)는 제한하지 않음 */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.equals("/actuator") || path.startsWith("/actuator/");
+    }
+}
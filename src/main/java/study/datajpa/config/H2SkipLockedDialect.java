@@ -0,0 +1,33 @@
+package study.datajpa.config;
+
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.engine.jdbc.dialect.spi.DialectResolutionInfo;
+
+/**
+ * H2 는 2.2 부터 FOR UPDATE SKIP LOCKED 를 지원하지만 하이버네이트 6.2 의 H2Dialect 는 이를 알지 못해서
+ * 락 타임아웃 -2(SKIP_LOCKED) 힌트를 주어도 그냥 FOR UPDATE 로 만든다. (MySQL 8, PostgreSQL, Oracle 방언은 원래 지원)
+ */
+public class H2SkipLockedDialect extends H2Dialect {
+
+    public H2SkipLockedDialect() {
+    }
+
+    public H2SkipLockedDialect(DialectResolutionInfo info) {
+        super(info);
+    }
+
+    @Override
+    public boolean supportsSkipLocked() {
+        return true;
+    }
+
+    @Override
+    public String getForUpdateSkipLockedString() {
+        return getForUpdateString() + " skip locked";
+    }
+
+    @Override
+    public String getForUpdateSkipLockedString(String aliases) {
+        return getForUpdateString(aliases) + " skip locked";
+    }
+}
@@ -0,0 +1,31 @@
+package study.datajpa.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 경로 변수(id)를 엔티티로 바인딩한다. (도메인 클래스 컨버터 대신 PathEntityArgumentResolver 사용)
+ * 엔드포인트마다 fetch 로 조회 방식을 고른다.
+ *
+ * REFERENCE  : em.getReference. DB 를 조회하지 않는 프록시 (id 만 쓰거나 연관관계 설정용)
+ * ENTITY     : em.find. 영속성 컨텍스트/2차 캐시에 있으면 DB 를 조회하지 않음. 없으면 404
+ * PROJECTION : ENTITY 로 읽은 엔티티를 파라미터 타입(인터페이스 Projection)으로 감싼다. entity 로 엔티티 타입을 지정
+ *
+ * 파라미터가 List 면 경로 변수를 콤마로 나눈 id 들을 한 번에(multiLoad) 조회한다. 예) /members/batch/1,2,3
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface PathEntity {
+
+    enum Fetch { REFERENCE, ENTITY, PROJECTION }
+
+    /** 경로 변수 이름 */
+    String value();
+
+    Fetch fetch() default Fetch.ENTITY;
+
+    /** PROJECTION 일 때 엔티티 타입 */
+    Class<?> entity() default void.class;
+}
@@ -0,0 +1,162 @@
+package study.datajpa.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.convert.ConversionException;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.MissingPathVariableException;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.HandlerMapping;
+import study.datajpa.config.PathEntity.Fetch;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @PathEntity 파라미터를 해석한다. 요청 범위 EntityManager(open-in-view) 를 사용하기 때문에
+ * REFERENCE 프록시도 뷰/컨트롤러에서 필요할 때 초기화할 수 있다.
+ *
+ * id 를 변환할 수 없거나 목록이 MAX_IDS 개를 넘으면 400.
+ *
+ * entity.path.conversions : 변환 건수. source 태그로 DB 를 조회하지 않은 변환을 구분한다.
+ *   reference(프록시), cache(영속성 컨텍스트 또는 2차 캐시), database
+ */
+public class PathEntityArgumentResolver implements HandlerMethodArgumentResolver {
+
+    /** 목록 파라미터 하나에 받을 수 있는 최대 id 수 */
+    static final int MAX_IDS = 100;
+
+    private final EntityManager em;
+    private final MeterRegistry meterRegistry;
+    private final ConversionService conversionService = DefaultConversionService.getSharedInstance();
+    private final ProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+
+    public PathEntityArgumentResolver(EntityManager em, MeterRegistry meterRegistry) {
+        this.em = em;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(PathEntity.class);
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) throws Exception {
+        PathEntity pathEntity = parameter.getParameterAnnotation(PathEntity.class);
+        @SuppressWarnings("unchecked")
+        Map<String, String> variables = (Map<String, String>) webRequest.getAttribute(
+                HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        String raw = variables == null ? null : variables.get(pathEntity.value());
+        if (raw == null) {
+            throw new MissingPathVariableException(pathEntity.value(), parameter);
+        }
+
+        boolean many = List.class.isAssignableFrom(parameter.getParameterType());
+        Class<?> targetType = many
+                ? ResolvableType.forMethodParameter(parameter).asCollection().resolveGeneric(0)
+                : parameter.getParameterType();
+        Class<?> entityType = pathEntity.fetch() == Fetch.PROJECTION ? pathEntity.entity() : targetType;
+        Class<?> idType = em.getMetamodel().entity(entityType).getIdType().getJavaType();
+
+        if (many) {
+            String[] values = raw.split(",");
+            if (values.length > MAX_IDS) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        pathEntity.value() + " 는 최대 " + MAX_IDS + " 개까지 조회할 수 있습니다.");
+            }
+            List<Object> ids = Arrays.stream(values)
+                    .map(value -> convertId(pathEntity.value(), value.trim(), idType))
+                    .toList();
+            return resolveAll(entityType, targetType, ids, pathEntity.fetch());
+        }
+        return resolve(entityType, targetType, convertId(pathEntity.value(), raw, idType), pathEntity.fetch());
+    }
+
+    private Object convertId(String name, String value, Class<?> idType) {
+        Object id;
+        try {
+            id = conversionService.convert(value, idType);
+        } catch (ConversionException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, name + " : " + value, e);
+        }
+        if (id == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, name + " : " + value);
+        }
+        return id;
+    }
+
+    private Object resolve(Class<?> entityType, Class<?> targetType, Object id, Fetch fetch) {
+        if (fetch == Fetch.REFERENCE) {
+            record(entityType, fetch, "reference", 1);
+            return em.getReference(entityType, id);
+        }
+        boolean cached = isCached(entityType, id);
+        Object entity = em.find(entityType, id);
+        if (entity == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, entityType.getSimpleName() + " " + id);
+        }
+        record(entityType, fetch, cached ? "cache" : "database", 1);
+        return fetch == Fetch.PROJECTION ? projectionFactory.createProjection(targetType, entity) : entity;
+    }
+
+    /**
+     * 캐시에 없는 id 들은 한 번에 조회.
+     * multiLoad 는 CacheMode 를 지정해야 2차 캐시를 확인한다. (지정하지 않으면 캐시된 id 도 다시 조회함)
+     */
+    private List<Object> resolveAll(Class<?> entityType, Class<?> targetType, List<Object> ids, Fetch fetch) {
+        if (fetch == Fetch.REFERENCE) {
+            record(entityType, fetch, "reference", ids.size());
+            return ids.stream().map(id -> (Object) em.getReference(entityType, id)).toList();
+        }
+        long cached = ids.stream().filter(id -> isCached(entityType, id)).count();
+        List<?> entities = em.unwrap(Session.class)
+                .byMultipleIds(entityType)
+                .with(CacheMode.NORMAL)
+                .enableSessionCheck(true)
+                .enableOrderedReturn(true)
+                .multiLoad(ids);
+        if (entities.contains(null)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, entityType.getSimpleName() + " " + ids);
+        }
+        record(entityType, fetch, "cache", cached);
+        record(entityType, fetch, "database", ids.size() - cached);
+        return entities.stream()
+                .map(entity -> fetch == Fetch.PROJECTION ? projectionFactory.createProjection(targetType, entity) : entity)
+                .toList();
+    }
+
+    /** 영속성 컨텍스트나 2차 캐시에 있으면 em.find 가 DB 를 조회하지 않음 */
+    private boolean isCached(Class<?> entityType, Object id) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(entityType);
+        if (session.getPersistenceContextInternal().getEntity(session.generateEntityKey(id, persister)) != null) {
+            return true;
+        }
+        return em.getEntityManagerFactory().getCache().contains(entityType, id);
+    }
+
+    private void record(Class<?> entityType, Fetch fetch, String source, long count) {
+        if (count > 0) {
+            meterRegistry.counter("entity.path.conversions",
+                    "entity", entityType.getSimpleName(), "fetch", fetch.name(), "source", source).increment(count);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package study.datajpa.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * 읽기 전용 트랜잭션(@Transactional(readOnly = true))은 레플리카로, 나머지는 프라이머리로 보낸다.
+ * 레플리카가 죽었거나 지연이 허용치보다 크면(ReplicaHealth) 읽기도 프라이머리로 보낸다.
+ *
+ * 트랜잭션의 readOnly 여부는 트랜잭션이 시작된 "뒤에" 알 수 있기 때문에,
+ * 반드시 LazyConnectionDataSourceProxy 로 감싸서 첫 쿼리를 실행할 때 커넥션을 고르도록 해야 한다.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Target { PRIMARY, REPLICA }
+
+    private final ReplicaHealth replicaHealth;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaHealth replicaHealth) {
+        this.replicaHealth = replicaHealth;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && replicaHealth.isAvailable()) {
+            return Target.REPLICA;
+        }
+        return Target.PRIMARY;
+    }
+}
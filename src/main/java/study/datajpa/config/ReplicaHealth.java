@@ -0,0 +1,83 @@
+package study.datajpa.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 레플리카 상태를 주기적으로 확인한다. 연결이 안 되거나 복제 지연이 maxLag 보다 크면 사용하지 않는다.
+ * lagQuery 는 지연 시간(초)을 숫자 하나로 돌려주는 쿼리. (DB 마다 다름)
+ *   MySQL      : 레플리카 상태 테이블/performance_schema 조회
+ *   PostgreSQL : select extract(epoch from now() - pg_last_xact_replay_timestamp())
+ * 비어 있으면 연결만 확인한다.
+ */
+@Slf4j
+public class ReplicaHealth implements AutoCloseable {
+
+    private final DataSource replica;
+    private final String lagQuery;
+    private final Duration maxLag;
+    private final ScheduledExecutorService scheduler;
+
+    private volatile boolean available;
+    private volatile double lagSeconds = Double.NaN;
+
+    public ReplicaHealth(DataSource replica, String lagQuery, Duration maxLag, Duration checkInterval) {
+        this.replica = replica;
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("replica-health-"));
+        scheduler.scheduleWithFixedDelay(this::check, 0, checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    /** 마지막으로 확인한 복제 지연(초). 확인하지 못했으면 NaN */
+    public double getLagSeconds() {
+        return lagSeconds;
+    }
+
+    public void check() {
+        boolean wasAvailable = available;
+        try (Connection connection = replica.getConnection()) {
+            lagSeconds = StringUtils.hasText(lagQuery) ? queryLag(connection) : (connection.isValid(1) ? 0 : Double.NaN);
+            available = lagSeconds <= maxLag.toMillis() / 1000.0;
+        } catch (SQLException | RuntimeException e) {
+            lagSeconds = Double.NaN;
+            available = false;
+            log.debug("replica check failed", e);
+        }
+        if (wasAvailable != available) {
+            log.warn("replica {} (lag = {}s, max = {}s)", available ? "available" : "unavailable, reading from primary",
+                    lagSeconds, maxLag.toSeconds());
+        }
+    }
+
+    private double queryLag(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(lagQuery)) {
+            if (!rs.next()) {
+                return Double.NaN;
+            }
+            double lag = rs.getDouble(1);
+            return rs.wasNull() ? Double.NaN : lag;
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
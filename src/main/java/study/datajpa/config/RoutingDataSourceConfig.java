@@ -0,0 +1,100 @@
+package study.datajpa.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * datajpa.datasource.replica.enabled=true 면 프라이머리/레플리카 커넥션 풀을 따로 만들고 라우팅 데이터소스로 묶는다.
+ * 프라이머리 : spring.datasource(.hikari.*)
+ * 레플리카   : datajpa.datasource.replica(.hikari.*)
+ * 레플리카 풀은 읽기 요청만 받기 때문에 쓰기와 커넥션을 두고 경쟁하지 않는다.
+ *
+ * spring.jpa.open-in-view=false 여야 한다. open-in-view 면 요청 범위 EntityManager 가 처음 받은 커넥션을 요청이 끝날 때까지 잡고 있어서
+ * (DELAYED_ACQUISITION_AND_HOLD) 읽기 전용 트랜잭션 다음의 쓰기가 레플리카 커넥션으로 실행된다. -> 켜져 있으면 시작하지 않음
+ */
+@Configuration
+@ConditionalOnProperty(name = "datajpa.datasource.replica.enabled", havingValue = "true")
+public class RoutingDataSourceConfig {
+
+    public RoutingDataSourceConfig(@Value("${spring.jpa.open-in-view:true}") boolean openInView) {
+        if (openInView) {
+            throw new IllegalStateException(
+                    "datajpa.datasource.replica.enabled=true 이면 spring.jpa.open-in-view=false 로 설정해야 합니다. " +
+                    "(요청 범위 EntityManager 가 읽기 전용 트랜잭션의 레플리카 커넥션을 쓰기에도 사용함)");
+        }
+    }
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties primaryDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(@Qualifier("primaryDataSourceProperties") DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("datajpa.datasource.replica")
+    public DataSourceProperties replicaDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("datajpa.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(@Qualifier("replicaDataSourceProperties") DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaHealth replicaHealth(@Qualifier("replicaDataSource") DataSource replica,
+                                       @Value("${datajpa.datasource.replica.lag-query:}") String lagQuery,
+                                       @Value("${datajpa.datasource.replica.max-lag:5s}") Duration maxLag,
+                                       @Value("${datajpa.datasource.replica.check-interval:5s}") Duration checkInterval,
+                                       MeterRegistry meterRegistry) {
+        ReplicaHealth replicaHealth = new ReplicaHealth(replica, lagQuery, maxLag, checkInterval);
+        Gauge.builder("datasource.replica.lag", replicaHealth, ReplicaHealth::getLagSeconds)
+                .description("레플리카 복제 지연(초)")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("datasource.replica.available", replicaHealth, h -> h.isAvailable() ? 1 : 0)
+                .description("1 이면 읽기 전용 트랜잭션을 레플리카로 보냄")
+                .register(meterRegistry);
+        return replicaHealth;
+    }
+
+    /**
+     * JPA 가 사용하는 데이터소스. 커넥션은 첫 쿼리를 실행할 때 라우팅해서 가져온다.
+     * p6spy 는 커넥션을 받자마자 메타데이터를 조회해서 지연 로딩을 깨버리기 때문에 이 빈은 감싸지 않고 각 풀을 감싼다. (decorator.datasource.exclude-beans)
+     */
+    @Bean
+    @Primary
+    public DataSource routingDataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReplicaHealth replicaHealth) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replica, replicaHealth);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
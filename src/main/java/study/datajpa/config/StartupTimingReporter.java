@@ -0,0 +1,69 @@
+package study.datajpa.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline.TimelineEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 애플리케이션이 뜨면 시작 단계별 소요 시간을 로그로 남긴다. (오토스케일링 때 어디서 시간이 드는지 확인용)
+ * DataJpaApplication.main 에서 BufferingApplicationStartup 을 설정한 경우에만 동작한다.
+ * 전체 타임라인은 /actuator/startup
+ *
+ * 단계(빈 생성 제외) : 이름별 합계. 하위 단계 시간이 상위 단계에도 포함되어 있기 때문에 더하면 전체 시간보다 크다.
+ * 빈 생성 : 오래 걸린 빈 TOP_BEANS 개. 의존하는 빈을 만드는 시간도 포함된다.
+ */
+@Slf4j
+@Component
+public class StartupTimingReporter implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final String BEAN_INSTANTIATE = "spring.beans.instantiate";
+    private static final int TOP_PHASES = 15;
+    private static final int TOP_BEANS = 10;
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (!(event.getApplicationContext().getApplicationStartup() instanceof BufferingApplicationStartup startup)) {
+            return;
+        }
+        var events = startup.getBufferedTimeline().getEvents();
+
+        Map<String, Duration> phases = events.stream()
+                .filter(e -> !BEAN_INSTANTIATE.equals(e.getStartupStep().getName()))
+                .collect(Collectors.groupingBy(e -> e.getStartupStep().getName(),
+                        Collectors.reducing(Duration.ZERO, TimelineEvent::getDuration, Duration::plus)));
+
+        StringBuilder report = new StringBuilder("startup ready in ").append(millis(event.getTimeTaken())).append("ms");
+        report.append("\n  phases :");
+        phases.entrySet().stream()
+                .sorted(Map.Entry.<String, Duration>comparingByValue().reversed())
+                .limit(TOP_PHASES)
+                .forEach(phase -> report.append("\n    ").append(millis(phase.getValue())).append("ms ").append(phase.getKey()));
+        report.append("\n  beans :");
+        events.stream()
+                .filter(e -> BEAN_INSTANTIATE.equals(e.getStartupStep().getName()))
+                .sorted(Comparator.comparing(TimelineEvent::getDuration).reversed())
+                .limit(TOP_BEANS)
+                .forEach(e -> report.append("\n    ").append(millis(e.getDuration())).append("ms ").append(beanName(e.getStartupStep())));
+        log.info(report.toString());
+    }
+
+    private static String beanName(StartupStep step) {
+        Map<String, String> tags = new LinkedHashMap<>();
+        step.getTags().forEach(tag -> tags.put(tag.getKey(), tag.getValue()));
+        return tags.getOrDefault("beanName", "?");
+    }
+
+    private static long millis(Duration duration) {
+        return duration == null ? 0 : duration.toMillis();
+    }
+}
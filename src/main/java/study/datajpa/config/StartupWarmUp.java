@@ -0,0 +1,187 @@
+package study.datajpa.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.repository.MemberJpaRepository;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamJpaRepository;
+import study.datajpa.repository.UsernameOnly;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 배포 직후 첫 요청들이 JPQL -> SQL 변환(쿼리 플랜), JIT 컴파일, 커넥션 생성 비용을 떠안지 않도록 미리 실행해둔다.
+ * ApplicationRunner 는 readiness 가 ACCEPTING_TRAFFIC 으로 바뀌기 전에 실행되기 때문에, 워밍업이 끝나야 트래픽을 받는다.
+ *
+ * 1. 히카리 풀이 minimum-idle 만큼 커넥션을 만들 때까지 기다린다. (pool-fill-timeout 까지만)
+ * 2. 읽기 전용 트랜잭션에서 자주 쓰는 조회 쿼리를 iterations 번 실행한다. 데이터는 바꾸지 않는다.
+ * 3. 내장 톰캣이 떠 있으면 paths 의 조회 API 를 직접 호출한다. (필터, 인자 해석, JSON 변환까지 JIT 대상이 됨)
+ *    runner 는 톰캣이 포트를 연 다음에 실행되지만 readiness 전이라 로드밸런서는 아직 트래픽을 보내지 않는다.
+ * datajpa.warm-up.enabled=false 로 끌 수 있음
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "datajpa.warm-up.enabled", havingValue = "true", matchIfMissing = true)
+public class StartupWarmUp implements ApplicationRunner {
+
+    private static final String USERNAME = "warm-up";
+
+    private final MemberRepository memberRepository;
+    private final MemberJpaRepository memberJpaRepository;
+    private final TeamJpaRepository teamJpaRepository;
+    private final ObjectProvider<DataSource> dataSources;
+    private final Statistics statistics;
+    private final TransactionTemplate readOnly;
+    private final int iterations;
+    private final Duration poolFillTimeout;
+    private final List<String> paths;
+    private final ApplicationContext context;
+
+    public StartupWarmUp(MemberRepository memberRepository,
+                         MemberJpaRepository memberJpaRepository,
+                         TeamJpaRepository teamJpaRepository,
+                         ObjectProvider<DataSource> dataSources,
+                         EntityManagerFactory emf,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${datajpa.warm-up.iterations:50}") int iterations,
+                         @Value("${datajpa.warm-up.pool-fill-timeout:5s}") Duration poolFillTimeout,
+                         @Value("${datajpa.warm-up.paths:}") List<String> paths,
+                         ApplicationContext context) {
+        this.memberRepository = memberRepository;
+        this.memberJpaRepository = memberJpaRepository;
+        this.teamJpaRepository = teamJpaRepository;
+        this.dataSources = dataSources;
+        this.statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.iterations = iterations;
+        this.poolFillTimeout = poolFillTimeout;
+        this.paths = paths;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        long start = System.nanoTime();
+        fillPools();
+        long planMisses = statistics.getQueryPlanCacheMissCount();
+        String baseUrl = baseUrl();
+        /** HttpClient 는 닫기 전까지 selector 스레드를 들고 있기 때문에 워밍업이 끝나면 바로 닫는다. */
+        try (HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build()) {
+            for (int i = 0; i < iterations; i++) {
+                readOnly.executeWithoutResult(status -> workload());
+                if (baseUrl != null) {
+                    request(client, baseUrl);
+                }
+            }
+        }
+        log.info("warm-up {} iterations in {}ms (query plans compiled : {}, connections ready : {})",
+                iterations, (System.nanoTime() - start) / 1_000_000,
+                statistics.getQueryPlanCacheMissCount() - planMisses, idleConnections());
+    }
+
+    /** 읽기 요청에서 자주 쓰는 쿼리들. 쿼리 플랜 캐시에 올라가고 JIT 컴파일 대상이 된다. */
+    void workload() {
+        memberRepository.findByUsername(USERNAME);
+        memberRepository.findProjectionById(0L, UsernameOnly.class);
+        memberRepository.findByAge(0, PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "username")));
+        memberRepository.findListByAge(0, PageRequest.of(0, 20));
+        memberRepository.findFirst20ByAgeOrderByUsernameDescIdDesc(0, ScrollPosition.keyset());
+        memberRepository.findAllByIdsInOrder(List.of(0L));
+        memberRepository.findAllByUsernamesInOrder(List.of(USERNAME));
+        memberJpaRepository.findByUsernameAndAgeGreaterThan(USERNAME, 0);
+        memberJpaRepository.findByPage(0, 0, 20);
+        memberJpaRepository.totalCount(0);
+        teamJpaRepository.count();
+    }
+
+    private void request(HttpClient client, String baseUrl) throws InterruptedException {
+        for (String path : paths) {
+            try {
+                client.send(HttpRequest.newBuilder(URI.create(baseUrl + path)).build(), HttpResponse.BodyHandlers.discarding());
+            } catch (IOException e) {
+                log.debug("warm-up request failed : {}", path, e);
+            }
+        }
+    }
+
+    /** 내장 서버가 없으면 (테스트의 MOCK 환경 등) null */
+    private String baseUrl() {
+        if (paths.isEmpty() || !(context instanceof WebServerApplicationContext webContext)
+                || webContext.getWebServer() == null || webContext.getWebServer().getPort() <= 0) {
+            return null;
+        }
+        return "http://localhost:" + webContext.getWebServer().getPort();
+    }
+
+    /** 풀은 백그라운드에서 minimum-idle 까지 커넥션을 채운다. 다 채워질 때까지 (최대 poolFillTimeout) 기다림 */
+    private void fillPools() throws InterruptedException {
+        long deadline = System.nanoTime() + poolFillTimeout.toNanos();
+        for (HikariDataSource pool : pools()) {
+            HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+            if (mxBean == null) {      // 아직 커넥션을 한 번도 요청하지 않은 풀
+                try {
+                    pool.getConnection().close();
+                } catch (SQLException e) {
+                    log.warn("warm-up : cannot open pool {}", pool.getPoolName(), e);
+                    continue;
+                }
+                mxBean = pool.getHikariPoolMXBean();
+            }
+            int target = Math.min(pool.getMinimumIdle(), pool.getMaximumPoolSize());
+            while (mxBean.getTotalConnections() < target && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    private int idleConnections() {
+        return pools().stream()
+                .map(HikariDataSource::getHikariPoolMXBean)
+                .mapToInt(mxBean -> mxBean == null ? 0 : mxBean.getIdleConnections())
+                .sum();
+    }
+
+    /** p6spy/라우팅 데이터소스로 감싸져 있어도 안쪽 히카리 풀을 찾는다. */
+    private Set<HikariDataSource> pools() {
+        Set<HikariDataSource> pools = Collections.newSetFromMap(new IdentityHashMap<>());
+        dataSources.orderedStream().forEach(dataSource -> {
+            try {
+                if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                    pools.add(dataSource.unwrap(HikariDataSource.class));
+                }
+            } catch (SQLException e) {
+                log.debug("not a hikari pool : {}", dataSource, e);
+            }
+        });
+        return pools;
+    }
+}
@@ -0,0 +1,49 @@
+package study.datajpa.config;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * 트랜잭션 하나에서 한 번만 계산하고 재사용하는 값.
+ * 트랜잭션이 끝나면 자동으로 정리되고, 트랜잭션 밖에서 호출하면 매번 새로 계산한다.
+ */
+public class TransactionScopedValue<T> {
+
+    private final Supplier<T> supplier;
+
+    public TransactionScopedValue(Supplier<T> supplier) {
+        this.supplier = supplier;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return supplier.get();
+        }
+        T value = (T) TransactionSynchronizationManager.getResource(this);
+        if (value == null) {
+            T newValue = supplier.get();
+            TransactionSynchronizationManager.bindResource(this, newValue);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void suspend() {
+                    TransactionSynchronizationManager.unbindResource(TransactionScopedValue.this);
+                }
+
+                @Override
+                public void resume() {
+                    TransactionSynchronizationManager.bindResource(TransactionScopedValue.this, newValue);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TransactionScopedValue.this);
+                }
+            });
+            value = newValue;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,31 @@
+package study.datajpa.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import study.datajpa.service.MemberPagingService.CountMode;
+
+import java.util.List;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    private final EntityManager em;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(new PathEntityArgumentResolver(em, meterRegistry));
+    }
+
+    /** ?count=parallel 처럼 소문자로도 받는다. 없는 값이면 400 (MethodArgumentTypeMismatchException) */
+    @Override
+    public void addFormatters(FormatterRegistry registry) {
+        registry.addConverter(String.class, CountMode.class, value -> CountMode.valueOf(value.trim().toUpperCase()));
+    }
+}
@@ -0,0 +1,71 @@
+package study.datajpa.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class WebServerConfig {
+
+    /**
+     * 톰캣 요청 처리 스레드를 가상 스레드로 바꾼다. (부트 3.1 에는 spring.threads.virtual 설정이 없음)
+     * 요청마다 가상 스레드를 만들기 때문에 server.tomcat.threads.max 는 더 이상 동시 요청 수를 막아주지 않는다.
+     * -> 동시 요청 수는 ConcurrencyLimitFilter 로 제한 (datajpa.web.concurrency-limit.enabled=true)
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "datajpa.web.virtual-threads", havingValue = "true")
+    public VirtualThreadExecutorCustomizer virtualThreadExecutorCustomizer() {
+        return new VirtualThreadExecutorCustomizer();
+    }
+
+    /**
+     * 꺼져 있는 것이 기본. 플랫폼 스레드에서는 톰캣 스레드 수가 이미 동시 요청 수를 제한한다.
+     * permits 를 따로 주지 않으면 히카리 커넥션 풀 크기에서 병렬 count / 피드 미리 조회 스레드 수를 뺀 값을 사용한다.
+     * 요청(open-in-view 커넥션)이 풀을 다 잡은 채로 그 스레드들의 커넥션을 기다리지 않게 하기 위함
+     */
+    @Bean
+    @ConditionalOnProperty(name = "datajpa.web.concurrency-limit.enabled", havingValue = "true")
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            @Value("${datajpa.web.concurrency-limit.permits:0}") int permits,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+            @Value("${datajpa.count.threads:4}") int countThreads,
+            @Value("${datajpa.feed.prefetch-threads:2}") int prefetchThreads,
+            @Value("${datajpa.web.concurrency-limit.acquire-timeout:2s}") Duration acquireTimeout,
+            MeterRegistry meterRegistry) {
+        if (permits <= 0) {
+            permits = Math.max(1, poolSize - countThreads - prefetchThreads);
+        }
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration =
+                new FilterRegistrationBean<>(new ConcurrencyLimitFilter(permits, acquireTimeout, meterRegistry));
+        registration.addUrlPatterns("/*");
+        return registration;
+    }
+
+    /**
+     * 톰캣에 넘기는 가상 스레드 executor 를 컨텍스트가 닫힐 때 같이 닫는다. (톰캣은 밖에서 받은 executor 를 종료하지 않음)
+     * Executor 타입 빈으로 등록하면 부트의 applicationTaskExecutor 가 만들어지지 않기 때문에 customizer 가 들고 있는다.
+     */
+    public static class VirtualThreadExecutorCustomizer implements TomcatProtocolHandlerCustomizer<ProtocolHandler>, AutoCloseable {
+
+        private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+        @Override
+        public void customize(ProtocolHandler protocolHandler) {
+            protocolHandler.setExecutor(executor);
+        }
+
+        @Override
+        public void close() {
+            executor.close();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package study.datajpa.controller;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.dto.CacheStatsDto;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 2차 캐시 / 쿼리 캐시 hit/miss 통계. hibernate.generate_statistics = true 일 때만 값이 쌓인다.
+ */
+@RestController
+@RequiredArgsConstructor
+public class CacheStatsController {
+
+    private final EntityManagerFactory emf;
+
+    @GetMapping("/cache/stats")
+    public List<CacheStatsDto> regionStats() {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        return Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(region -> {
+                    CacheRegionStatistics stats = statistics.getDomainDataRegionStatistics(region);
+                    return new CacheStatsDto(region, stats.getHitCount(), stats.getMissCount(), stats.getPutCount());
+                })
+                .toList();
+    }
+
+    /**
+     * 쿼리별 쿼리 캐시 통계. 쿼리 메소드마다 JPQL 이 다르기 때문에 메소드별 hit ratio 로 볼 수 있음.
+     * 캐시를 사용하지 않는 쿼리는 제외한다.
+     */
+    @GetMapping("/cache/stats/queries")
+    public List<CacheStatsDto> queryStats() {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        return Arrays.stream(statistics.getQueries())
+                .sorted()
+                .map(query -> {
+                    QueryStatistics stats = statistics.getQueryStatistics(query);
+                    return new CacheStatsDto(query, stats.getCacheHitCount(), stats.getCacheMissCount(), stats.getCachePutCount());
+                })
+                .filter(stats -> stats.getHitCount() + stats.getMissCount() + stats.getPutCount() > 0)
+                .toList();
+    }
+}
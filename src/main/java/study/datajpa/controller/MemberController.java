@@ -1,33 +1,119 @@
 package study.datajpa.controller;
 
-import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import study.datajpa.config.PathEntity;
+import study.datajpa.config.PathEntity.Fetch;
+import study.datajpa.dto.MemberCursor;
+import study.datajpa.dto.MemberCursorPage;
+import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
 import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.UsernameOnly;
+import study.datajpa.service.MemberExportService;
+import study.datajpa.service.MemberFeedService;
+import study.datajpa.service.MemberPagingService;
+import study.datajpa.service.MemberPagingService.CountMode;
+
+import java.util.List;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
 
+    static final int MAX_KEYSET_SIZE = 100;
+
     private final MemberRepository memberRepository;
+    private final MemberExportService memberExportService;
+    private final MemberPagingService memberPagingService;
+    private final MemberFeedService memberFeedService;
 
+    /** username 만 필요하기 때문에 엔티티 대신 Projection 으로 username 컬럼만 조회 */
     @GetMapping("/members/{id}")
     public String findMember(@PathVariable("id") Long id) {
-        Member member = memberRepository.findById(id).get();
-        return member.getUsername();
+        return memberRepository.findProjectionById(id, UsernameOnly.class).get().getUsername();
     }
 
+    /**
+     * 도메인 클래스 컨버터는 매번 findById 로 엔티티를 조회한다.
+     * -> 2차 캐시에 있는 엔티티를 Projection 으로 감싸서 사용. 캐시에 없을 때만 DB 조회
+     */
     @GetMapping("/members2/{id}")
-    public String findMember2(@PathVariable("id") Member member) {
+    public String findMember2(@PathEntity(value = "id", fetch = Fetch.PROJECTION, entity = Member.class) UsernameOnly member) {
         return member.getUsername();
     }
 
-    @PostConstruct
-    public void init() {
-        memberRepository.save(new Member("member1"));
+    /** 여러 id 를 한 번에 조회. 캐시에 없는 id 만 in 쿼리 한 번으로 조회한다. 예) /members2/batch/1,2,3 */
+    @GetMapping("/members2/batch/{ids}")
+    public List<String> findMembers2(@PathEntity(value = "ids", fetch = Fetch.PROJECTION, entity = Member.class) List<UsernameOnly> members) {
+        return members.stream().map(UsernameOnly::getUsername).toList();
+    }
+
+    /**
+     * 키셋 페이징. 응답의 next 토큰을 그대로 cursor 로 넘기면 다음 페이지를 조회한다.
+     * size + 1 건을 조회해서 다음 페이지가 있는지 판단한다. size 는 1 ~ MAX_KEYSET_SIZE, 잘못된 cursor 는 400
+     */
+    @GetMapping("/members/keyset")
+    public MemberCursorPage findMembersKeyset(@RequestParam("age") int age,
+                                              @RequestParam(value = "cursor", required = false) String cursor,
+                                              @RequestParam(value = "size", defaultValue = "20") int size) {
+        if (size < 1 || size > MAX_KEYSET_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size 는 1 ~ " + MAX_KEYSET_SIZE + " 이어야 합니다.");
+        }
+        MemberCursor after = cursor == null ? null : MemberCursor.decode(cursor);
+        List<Member> members = memberRepository.findByAgeKeyset(age, after, size + 1);
+
+        boolean hasNext = members.size() > size;
+        List<Member> content = hasNext ? members.subList(0, size) : members;
+        String next = null;
+        if (hasNext) {
+            Member last = content.get(content.size() - 1);
+            next = new MemberCursor(last.getUsername(), last.getId()).encode();
+        }
+        return new MemberCursorPage(content.stream()
+                .map(m -> new MemberDto(m.getId(), m.getUsername(), null))
+                .toList(), next);
+    }
+
+    /**
+     * 무한 스크롤 피드. Window(키셋) 스크롤로 20건씩 조회하고, 다음 20건은 미리 조회해둔다.
+     */
+    @GetMapping("/members/feed")
+    public MemberCursorPage memberFeed(@RequestParam("age") int age,
+                                       @RequestParam(value = "cursor", required = false) String cursor) {
+        return memberFeedService.feed(age, cursor);
+    }
+
+    /**
+     * 나이별 회원 페이징. count=parallel 이면 count 를 별도 커넥션에서 동시에, count=cached 면 캐시된 count 를 사용
+     */
+    @GetMapping("/members")
+    public Page<MemberDto> findMembersByAge(@RequestParam("age") int age,
+                                            @RequestParam(value = "count", defaultValue = "exact") CountMode count,
+                                            Pageable pageable) {
+        return memberPagingService.findByAge(age, pageable, count)
+                .map(m -> new MemberDto(m.getId(), m.getUsername(), null));
+    }
+
+    /**
+     * 전체 회원 NDJSON 내보내기. 응답 스트림에 바로 쓰기 때문에 결과를 메모리에 모으지 않는다.
+     */
+    @GetMapping(value = "/members/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportMembers() {
+        StreamingResponseBody body = memberExportService::exportNdjson;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
 }
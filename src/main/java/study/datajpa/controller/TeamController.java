@@ -0,0 +1,26 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.dto.TeamDto;
+import study.datajpa.repository.TeamRepository;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+
+    private final TeamRepository teamRepository;
+
+    /**
+     * 컬렉션 fetch join 은 페이징을 할 수 없기 때문에 팀만 페이징 조회하고,
+     * 회원 컬렉션은 default_batch_fetch_size 로 페이지의 팀들을 in 절 한 번에 초기화한다.
+     * 팀 수와 상관없이 쿼리는 count + 팀 + 회원 3번.
+     */
+    @GetMapping("/teams")
+    public Page<TeamDto> teams(Pageable pageable) {
+        return teamRepository.findAll(pageable).map(TeamDto::new);
+    }
+}
@@ -0,0 +1,31 @@
+package study.datajpa.dto;
+
+import lombok.Getter;
+
+/**
+ * 청크 단위 벌크 업데이트 진행 상황. 중간에 실패하면 nextFromId 부터 다시 시작하면 된다.
+ */
+@Getter
+public class BulkUpdateProgress {
+    private long nextFromId;    /** 다음 청크의 시작 id (이 id 미만은 모두 커밋됨) */
+    private long maxId;
+    private int chunks;         /** 커밋한 청크 수 */
+    private long updatedRows;
+
+    public BulkUpdateProgress(long nextFromId, long maxId, int chunks, long updatedRows) {
+        this.nextFromId = nextFromId;
+        this.maxId = maxId;
+        this.chunks = chunks;
+        this.updatedRows = updatedRows;
+    }
+
+    public boolean isDone() {
+        return nextFromId > maxId;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkUpdateProgress(nextFromId=" + nextFromId + ", maxId=" + maxId
+                + ", chunks=" + chunks + ", updatedRows=" + updatedRows + ")";
+    }
+}
@@ -0,0 +1,21 @@
+package study.datajpa.dto;
+
+import lombok.Getter;
+
+@Getter
+public class CacheStatsDto {
+    private String name;
+    private long hitCount;
+    private long missCount;
+    private long putCount;
+    private double hitRatio;
+
+    public CacheStatsDto(String name, long hitCount, long missCount, long putCount) {
+        this.name = name;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.putCount = putCount;
+        long total = hitCount + missCount;
+        this.hitRatio = total == 0 ? 0 : (double) hitCount / total;
+    }
+}
@@ -0,0 +1,63 @@
+package study.datajpa.dto;
+
+import lombok.Getter;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import study.datajpa.entity.Member;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * 키셋(seek) 페이징용 커서. 마지막으로 읽은 행의 (username, id)를 기억해두고,
+ * 다음 페이지는 OFFSET 대신 "where (username, id) < (:username, :id)" 조건으로 이어서 조회한다.
+ * 클라이언트에는 Base64 로 인코딩한 불투명 토큰으로만 노출한다.
+ */
+@Getter
+public class MemberCursor {
+    private static final char SEPARATOR = ':';
+
+    private final String username;
+    private final Long id;
+
+    public MemberCursor(String username, Long id) {
+        this.username = username;
+        this.id = id;
+    }
+
+    /** 마지막으로 읽은 회원 다음부터 이어서 조회하는 커서 */
+    public static MemberCursor after(Member member) {
+        return new MemberCursor(member.getUsername(), member.getId());
+    }
+
+    /** MemberRepository 의 Window 스크롤 메소드에 넘길 키셋 위치 (정렬 기준 username, id) */
+    public KeysetScrollPosition toScrollPosition() {
+        return ScrollPosition.forward(Map.of("username", username, "id", id));
+    }
+
+    public String encode() {
+        String raw = id + String.valueOf(SEPARATOR) + username;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static MemberCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int idx = raw.indexOf(SEPARATOR);
+            return new MemberCursor(raw.substring(idx + 1), Long.valueOf(raw.substring(0, idx)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new InvalidCursorException(token, e);
+        }
+    }
+
+    /** 클라이언트가 보낸 토큰이 잘못된 경우라서 400 으로 응답한다. */
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public static class InvalidCursorException extends IllegalArgumentException {
+        public InvalidCursorException(String token, Throwable cause) {
+            super("잘못된 커서 토큰입니다: " + token, cause);
+        }
+    }
+}
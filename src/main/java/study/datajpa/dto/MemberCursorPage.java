@@ -0,0 +1,16 @@
+package study.datajpa.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+public class MemberCursorPage {
+    private List<MemberDto> content;
+    private String next;        /** 마지막 페이지면 null */
+
+    public MemberCursorPage(List<MemberDto> content, String next) {
+        this.content = content;
+        this.next = next;
+    }
+}
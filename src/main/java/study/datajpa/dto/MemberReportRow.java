@@ -0,0 +1,21 @@
+package study.datajpa.dto;
+
+import lombok.Getter;
+
+/** 리포트용 회원 한 행. 팀이 없으면 teamId, teamName 은 null */
+@Getter
+public class MemberReportRow {
+    private Long id;
+    private String username;
+    private int age;
+    private Long teamId;
+    private String teamName;
+
+    public MemberReportRow(Long id, String username, int age, Long teamId, String teamName) {
+        this.id = id;
+        this.username = username;
+        this.age = age;
+        this.teamId = teamId;
+        this.teamName = teamName;
+    }
+}
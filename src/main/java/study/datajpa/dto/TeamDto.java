@@ -0,0 +1,22 @@
+package study.datajpa.dto;
+
+import lombok.Getter;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import java.util.List;
+
+@Getter
+public class TeamDto {
+    private Long id;
+    private String name;
+    private List<String> memberNames;
+
+    public TeamDto(Team team) {
+        this.id = team.getId();
+        this.name = team.getName();
+        this.memberNames = team.getMembers().stream()
+                .map(Member::getUsername)
+                .toList();
+    }
+}
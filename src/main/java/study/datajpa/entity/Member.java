@@ -2,22 +2,52 @@ package study.datajpa.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_member_username", columnList = "username"),          /** findByUsername*, findByNames(in 절) */
+        @Index(name = "idx_member_age_username", columnList = "age, username")   /** age 조건 + username 정렬 (findByPage, totalCount, 키셋 페이징) */
+})   /** 인덱스가 계속 사용되는지는 MemberQueryPlanTest 에서 실행 계획으로 확인 */
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "member")     /** 2차 캐시 영역 설정은 application.conf */
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id","username", "age"})
 @NamedQuery(
         name = "Member.findByUsername",
-        query = "select m from Member m where m.username = :username"
+        query = "select m from Member m where m.username = :username",
+        hints = @QueryHint(name = "org.hibernate.cacheable", value = "true")
 ) /** NamedQuery는 어플리케이션 로딩 시점에 쿼리를 파싱해보기 때문에, em.createQuery와 달리 로딩시점에 오류를 잡을 수 있다는 장점이 있음. **/
+/** MemberJpaRepository 쿼리. 로딩 시점에 파싱해두기 때문에 첫 요청에서 JPQL 파싱 비용이 들지 않는다. (스프링 데이터 JPA 메소드 이름과 겹치지 않게 MemberJpa. 로 시작) */
+@NamedQuery(name = "MemberJpa.count", query = "select count(m) from Member m")
+@NamedQuery(name = "MemberJpa.findAll", query = "select m from Member m")
+@NamedQuery(name = "MemberJpa.findByUsernameAndAgeGreaterThan", query = "select m from Member m where m.username = :username and m.age > :age")
+@NamedQuery(name = "MemberJpa.findByPage", query = "select m from Member m where m.age = :age order by m.username desc")
+@NamedQuery(name = "MemberJpa.totalCount", query = "select count(m) from Member m where m.age = :age")
+@NamedQuery(name = "MemberJpa.bulkAgePlus", query = "update versioned Member m set m.age = m.age + 1 where m.age >= :age")
 @NamedEntityGraph(name = "Member.all", attributeNodes = @NamedAttributeNode("team"))
+@SequenceGenerator(name = "member_seq_generator", sequenceName = "member_seq", allocationSize = Member.ID_ALLOCATION_SIZE)
 public class Member extends BaseEntity {
-    @Id @GeneratedValue
+    /**
+     * 시퀀스를 한 번 호출할 때 미리 확보하는 ID 개수. 이 값만큼은 DB 왕복 없이 메모리에서 ID를 할당한다.
+     * 시퀀스의 increment by 와 같은 값이 되어야 하므로 바꿀 때는 스키마도 함께 바꿔야 함.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
     @Column(name = "member_id")
     private Long id;
+
+    @Version
+    private Long version;   /** 변경 감지로 update 할 때 version 이 다르면 OptimisticLockException (동시 수정 방지) */
+
     private String username;
     private int age;
+    private LocalDateTime processedDate;    /** 작업 큐(MemberWorkQueue)에서 처리된 시각. null 이면 아직 처리 전 */
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "team_id")
@@ -40,6 +70,10 @@ public class Member extends BaseEntity {
         this.age = age;
     }
 
+    public void markProcessed(LocalDateTime processedDate) {
+        this.processedDate = processedDate;
+    }
+
     public void changeTeam(Team team) {
         this.team = team;
         team.getMembers().add(this);
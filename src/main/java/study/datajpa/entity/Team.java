@@ -2,21 +2,37 @@ package study.datajpa.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.OptimisticLock;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "team")     /** 2차 캐시 영역 설정은 application.conf */
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "name"})
+@NamedQuery(name = "TeamJpa.count", query = "select count(t) from Team t")     /** TeamJpaRepository 쿼리. Member 의 MemberJpa.* 참고 */
+@NamedQuery(name = "TeamJpa.findAll", query = "select t from Team t")
+@SequenceGenerator(name = "team_seq_generator", sequenceName = "team_seq", allocationSize = Team.ID_ALLOCATION_SIZE)
 public class Team {
+    /** Member.ID_ALLOCATION_SIZE 참고 */
+    public static final int ID_ALLOCATION_SIZE = 50;
 
-    @Id @GeneratedValue
+    @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "team_seq_generator")
     @Column(name = "team_id")
     private Long id;
+
+    @Version
+    private Long version;   /** 변경 감지로 update 할 때 version 이 다르면 OptimisticLockException (동시 수정 방지) */
+
     private String name;
 
+    /** 연관관계 주인이 아니라서 회원이 추가/이동해도 team 테이블은 바뀌지 않는다. 컬렉션이 바뀌어도 version 을 올리지 않음 (같은 팀에 동시 가입해도 충돌 없음) */
+    @OptimisticLock(excluded = true)
     @OneToMany(mappedBy = "team")
     private List<Member> members = new ArrayList<>();
 
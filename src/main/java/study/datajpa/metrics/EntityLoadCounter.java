@@ -0,0 +1,21 @@
+package study.datajpa.metrics;
+
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+
+/**
+ * DB(또는 2차 캐시)에서 읽어서 영속성 컨텍스트에 올린 엔티티 수를 스레드별로 센다.
+ */
+public class EntityLoadCounter implements PostLoadEventListener {
+
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        COUNT.get()[0]++;
+    }
+
+    public static long current() {
+        return COUNT.get()[0];
+    }
+}
@@ -0,0 +1,43 @@
+package study.datajpa.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * @Retryable 메소드의 낙관적 락 충돌/재시도 메트릭. (@EnableRetry 는 RetryListener 빈을 모든 @Retryable 에 적용)
+ * optimistic.lock.conflicts : 충돌 횟수
+ * optimistic.lock.retries   : 재시도가 있었던 호출. outcome=success 면 재시도로 성공, exhausted 면 재시도를 다 쓰고 실패
+ * 메소드 태그는 @Retryable 의 label
+ */
+@Component
+@RequiredArgsConstructor
+public class OptimisticLockRetryListener implements RetryListener {
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+        if (throwable instanceof OptimisticLockingFailureException) {
+            meterRegistry.counter("optimistic.lock.conflicts", "method", methodOf(context)).increment();
+        }
+    }
+
+    @Override
+    public <T, E extends Throwable> void close(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+        boolean retried = throwable == null ? context.getRetryCount() > 0 : context.getRetryCount() > 1;
+        if (retried) {
+            meterRegistry.counter("optimistic.lock.retries", "method", methodOf(context),
+                    "outcome", throwable == null ? "success" : "exhausted").increment();
+        }
+    }
+
+    private String methodOf(RetryContext context) {
+        Object name = context.getAttribute(RetryContext.NAME);
+        return name == null ? "unknown" : name.toString();
+    }
+}
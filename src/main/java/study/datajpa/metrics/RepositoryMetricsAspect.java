@@ -0,0 +1,101 @@
+package study.datajpa.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.Entity;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * 리포지토리 메소드별 조회 건수, SQL 수, 영속성 컨텍스트에 로딩된 엔티티 수를 기록한다.
+ * SQL 수와 엔티티 수는 메소드가 예외를 던져도 기록하고, 조회 건수는 엔티티를 돌려주는 메소드만 기록한다. (count, exists, 벌크 연산 등은 제외)
+ * 메소드별 응답 시간은 스프링 부트가 기본으로 기록하는 spring.data.repository.invocations 를 사용 (application.yml 에서 히스토그램 설정)
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class RepositoryMetricsAspect {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+
+    @Around("target(study.datajpa.repository.MemberRepository) || target(study.datajpa.repository.TeamRepository)")
+    public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+        SqlStatementCount statementsBefore = SqlStatementCounter.current();
+        long entitiesBefore = EntityLoadCounter.current();
+        String repository = repositoryName(joinPoint.getTarget().getClass());
+        String method = joinPoint.getSignature().getName();
+
+        try {
+            Object result = joinPoint.proceed();
+            long rows = rowsOf(result, ((MethodSignature) joinPoint.getSignature()).getReturnType());
+            if (rows >= 0) {
+                summary("repository.rows", repository, method).record(rows);
+            }
+            return result;
+        } finally {
+            summary("repository.sql.statements", repository, method)
+                    .record(SqlStatementCounter.current().minus(statementsBefore).getTotal());
+            summary("repository.entities.loaded", repository, method)
+                    .record(EntityLoadCounter.current() - entitiesBefore);
+        }
+    }
+
+    private DistributionSummary summary(String name, String repository, String method) {
+        return DistributionSummary.builder(name)
+                .tag("repository", repository)
+                .tag("method", method)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * 기록하지 않을 결과는 -1. 스트림은 아직 읽지 않았기 때문에 건수를 알 수 없고,
+     * 숫자/boolean/void 같이 엔티티가 아닌 결과는 조회 건수가 아니다.
+     */
+    private long rowsOf(Object result, Class<?> returnType) {
+        if (result == null) {
+            return isEntity(returnType) ? 0 : -1;
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Stream<?>) {
+            return -1;
+        }
+        return isEntity(result.getClass()) ? 1 : -1;
+    }
+
+    /** getReferenceById 의 프록시는 엔티티를 상속한 클래스라 @Entity 가 없음 (아직 조회하지 않았으므로 기록하지 않음) */
+    private boolean isEntity(Class<?> type) {
+        return type.isAnnotationPresent(Entity.class);
+    }
+
+    private String repositoryName(Class<?> targetClass) {
+        return repositoryNames.computeIfAbsent(targetClass, type -> ClassUtils.getAllInterfacesForClassAsSet(type).stream()
+                .filter(Repository.class::isAssignableFrom)
+                .filter(repository -> repository.getPackageName().startsWith("study.datajpa"))
+                .map(Class::getSimpleName)
+                .findFirst()
+                .orElse(type.getSimpleName()));
+    }
+}
@@ -0,0 +1,42 @@
+package study.datajpa.metrics;
+
+import lombok.Getter;
+
+/**
+ * 현재 스레드에서 실행한 SQL 수. 누적값이기 때문에 구간 사이의 차이(minus)로 사용한다.
+ */
+@Getter
+public class SqlStatementCount {
+
+    private final long select;
+    private final long insert;
+    private final long update;
+    private final long delete;
+    private final long other;
+
+    public SqlStatementCount(long select, long insert, long update, long delete, long other) {
+        this.select = select;
+        this.insert = insert;
+        this.update = update;
+        this.delete = delete;
+        this.other = other;
+    }
+
+    public long getTotal() {
+        return select + insert + update + delete + other;
+    }
+
+    public SqlStatementCount minus(SqlStatementCount before) {
+        return new SqlStatementCount(
+                select - before.select,
+                insert - before.insert,
+                update - before.update,
+                delete - before.delete,
+                other - before.other);
+    }
+
+    @Override
+    public String toString() {
+        return "select=" + select + ", insert=" + insert + ", update=" + update + ", delete=" + delete + ", other=" + other;
+    }
+}
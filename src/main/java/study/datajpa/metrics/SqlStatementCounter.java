@@ -0,0 +1,61 @@
+package study.datajpa.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * 하이버네이트가 JDBC 로 보내는 SQL 을 스레드별로 종류(select/insert/update/delete)마다 센다.
+ * hibernate.session_factory.statement_inspector 로 등록 (MetricsConfig)
+ * 배치 insert/update 는 배치 단위로 한 번 센다.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<long[]> COUNTS = ThreadLocal.withInitial(() -> new long[5]);
+
+    private static final int SELECT = 0;
+    private static final int INSERT = 1;
+    private static final int UPDATE = 2;
+    private static final int DELETE = 3;
+    private static final int OTHER = 4;
+
+    @Override
+    public String inspect(String sql) {
+        COUNTS.get()[typeOf(sql)]++;
+        return sql;
+    }
+
+    public static SqlStatementCount current() {
+        long[] counts = COUNTS.get();
+        return new SqlStatementCount(counts[SELECT], counts[INSERT], counts[UPDATE], counts[DELETE], counts[OTHER]);
+    }
+
+    private static int typeOf(String sql) {
+        int start = 0;
+        while (start < sql.length()) {
+            if (Character.isWhitespace(sql.charAt(start))) {
+                start++;
+            } else if (sql.startsWith("/*", start)) {
+                int end = sql.indexOf("*/", start);
+                start = end < 0 ? sql.length() : end + 2;
+            } else {
+                break;
+            }
+        }
+        if (startsWithIgnoreCase(sql, start, "select") || startsWithIgnoreCase(sql, start, "with")) {
+            return SELECT;
+        }
+        if (startsWithIgnoreCase(sql, start, "insert")) {
+            return INSERT;
+        }
+        if (startsWithIgnoreCase(sql, start, "update")) {
+            return UPDATE;
+        }
+        if (startsWithIgnoreCase(sql, start, "delete")) {
+            return DELETE;
+        }
+        return OTHER;
+    }
+
+    private static boolean startsWithIgnoreCase(String sql, int offset, String keyword) {
+        return sql.regionMatches(true, offset, keyword, 0, keyword.length());
+    }
+}
@@ -0,0 +1,42 @@
+package study.datajpa.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * HTTP 요청 하나에서 실행한 SQL 수를 컨트롤러 메소드별로 기록한다. (http.server.requests.sql.statements)
+ * 요청 스레드에서 실행한 SQL 만 센다. (StreamingResponseBody 처럼 다른 스레드에서 조회하는 경우는 제외)
+ */
+@RequiredArgsConstructor
+public class SqlStatementsPerRequestInterceptor implements HandlerInterceptor {
+
+    private static final String BEFORE = SqlStatementsPerRequestInterceptor.class.getName() + ".BEFORE";
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        request.setAttribute(BEFORE, SqlStatementCounter.current());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (!(handler instanceof HandlerMethod handlerMethod)
+                || !(request.getAttribute(BEFORE) instanceof SqlStatementCount before)) {
+            return;
+        }
+        SqlStatementCount executed = SqlStatementCounter.current().minus(before);
+        DistributionSummary.builder("http.server.requests.sql.statements")
+                .tag("controller", handlerMethod.getBeanType().getSimpleName())
+                .tag("method", handlerMethod.getMethod().getName())
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(executed.getTotal());
+    }
+}
@@ -19,6 +19,24 @@ public class MemberJpaRepository {
         return member;
     }
 
+    /**
+     * 대량 저장용. batchSize 건마다 flush 해서 insert 를 JDBC 배치로 보내고,
+     * 저장한 엔티티만 detach 해서 1차 캐시가 계속 커지지 않게 한다. (clear 와 달리 호출한 쪽이 조회해둔 엔티티는 그대로 영속 상태)
+     * batchSize 는 hibernate.jdbc.batch_size 와 맞추는 것이 좋음.
+     * 주의 : 호출이 끝나면 넘긴 엔티티들은 준영속 상태가 되고, flush 하기 때문에 다른 변경 내용도 같이 DB 에 반영된다.
+     */
+    public void saveAllBatched(List<Member> members, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize 는 1 이상이어야 합니다. batchSize=" + batchSize);
+        }
+        for (int from = 0; from < members.size(); from += batchSize) {
+            List<Member> chunk = members.subList(from, Math.min(from + batchSize, members.size()));
+            chunk.forEach(em::persist);
+            em.flush();
+            chunk.forEach(em::detach);
+        }
+    }
+
     public Member find(Long id) {
         return em.find(Member.class, id);
     }
@@ -29,9 +47,8 @@ public class MemberJpaRepository {
     }
 
     public long count() {
-        return em.createQuery(
-                "select count(m) from Member m", Long.class
-        ).getSingleResult();
+        return em.createNamedQuery("MemberJpa.count", Long.class)
+                .getSingleResult();
     }
 
     public void delete(Member member) {
@@ -39,16 +56,13 @@ public class MemberJpaRepository {
     }
 
     public List<Member> findAll() {
-        return em.createQuery(
-        "select m from Member m", Member.class
-        ).getResultList();
+        return em.createNamedQuery("MemberJpa.findAll", Member.class)
+                .getResultList();
     }
 
     public List<Member> findByUsernameAndAgeGreaterThan(String username, int age) {
-        return em.createQuery(
-                "select m from Member m " +
-                        "where m.username = :username and m.age > :age", Member.class
-                ).setParameter("username", username)
+        return em.createNamedQuery("MemberJpa.findByUsernameAndAgeGreaterThan", Member.class)
+                .setParameter("username", username)
                 .setParameter("age", age)
                 .getResultList();
     }
@@ -60,7 +74,7 @@ public class MemberJpaRepository {
     }
 
     public List<Member> findByPage(int age, int offset, int limit) {
-        return em.createQuery("select m from Member m where m.age = :age order by m.username desc", Member.class)
+        return em.createNamedQuery("MemberJpa.findByPage", Member.class)
                 .setParameter("age", age)
                 .setFirstResult(offset)
                 .setMaxResults(limit)
@@ -68,13 +82,13 @@ public class MemberJpaRepository {
     }
 
     public Long totalCount(int age) {
-        return em.createQuery("select count(m) from Member m where m.age = :age", Long.class)
+        return em.createNamedQuery("MemberJpa.totalCount", Long.class)
                 .setParameter("age", age)
                 .getSingleResult();
     }
 
     public int bulkAgePlus(int age) {
-        return em.createQuery("update Member m set m.age = m.age + 1 where m.age >= :age")
+        return em.createNamedQuery("MemberJpa.bulkAgePlus")
                 .setParameter("age", age)
                 .executeUpdate();
     }
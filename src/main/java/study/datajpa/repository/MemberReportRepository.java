@@ -0,0 +1,89 @@
+package study.datajpa.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.MemberReportRow;
+
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+/**
+ * 리포트용 읽기 전용 조회. 회원 수가 아무리 많아도 메모리 사용량이 일정하도록 StatelessSession 으로 한 행씩 읽는다.
+ * StatelessSession 은 영속성 컨텍스트(1차 캐시, 스냅샷)가 없어서 읽은 행을 들고 있지 않고, 변경 감지/flush 도 하지 않는다.
+ * 2차 캐시도 사용하지 않는다. (항상 FlushMode.MANUAL, CacheMode.IGNORE 인 셈이라 쿼리에 지정하면 UnsupportedOperationException)
+ * (findReadOnlyByUsername 의 readOnly 힌트는 스냅샷만 없앨 뿐 엔티티는 영속성 컨텍스트에 계속 쌓임)
+ *
+ * 현재 트랜잭션의 커넥션으로 StatelessSession 을 열기 때문에 읽기 전용 트랜잭션 라우팅(레플리카)도 그대로 적용된다.
+ * 집계는 DB 의 group by 대신 스트림 Collector 로 하기 때문에 원하는 기준으로 묶을 수 있고, 메모리는 그룹 수만큼만 쓴다.
+ */
+@Repository
+@Transactional(readOnly = true)
+public class MemberReportRepository {
+
+    public static final String NO_TEAM = "(no team)";
+
+    private static final String ROWS = "select new study.datajpa.dto.MemberReportRow(m.id, m.username, m.age, t.id, t.name)" +
+            " from Member m left join m.team t";
+
+    @PersistenceContext
+    private EntityManager em;
+
+    /** 회원을 한 행씩 action 에 넘긴다. action 이 받은 행을 모아두지 않는 한 메모리는 fetchSize 만큼만 사용 */
+    public void forEachRow(int fetchSize, Consumer<MemberReportRow> action) {
+        scroll(ROWS, MemberReportRow.class, fetchSize, action);
+    }
+
+    /** jpql 결과를 StatelessSession 으로 한 행씩 읽는다. 엔티티를 조회해도 영속성 컨텍스트에 올라가지 않음 */
+    <T> void scroll(String jpql, Class<T> resultType, int fetchSize, Consumer<? super T> action) {
+        SessionFactory sessionFactory = em.getEntityManagerFactory().unwrap(SessionFactory.class);
+        em.unwrap(Session.class).doWork(connection -> {
+            try (StatelessSession session = sessionFactory.withStatelessOptions().connection(connection).openStatelessSession();
+                 ScrollableResults<T> rows = session.createSelectionQuery(jpql, resultType)
+                         .setReadOnly(true)
+                         .setFetchSize(fetchSize)
+                         .scroll(ScrollMode.FORWARD_ONLY)) {
+                while (rows.next()) {
+                    action.accept(rows.get());
+                }
+            }
+        });
+    }
+
+    /** 회원 전체를 collector 로 집계한다. 예) aggregate(1000, Collectors.summingInt(MemberReportRow::getAge)) */
+    public <A, R> R aggregate(int fetchSize, Collector<? super MemberReportRow, A, R> collector) {
+        A container = collector.supplier().get();
+        BiConsumer<A, ? super MemberReportRow> accumulator = collector.accumulator();
+        forEachRow(fetchSize, row -> accumulator.accept(container, row));
+        return collector.finisher().apply(container);
+    }
+
+    /** 팀 이름별 회원 수 (이름순). 팀이 없는 회원은 NO_TEAM */
+    public SortedMap<String, Long> countMembersPerTeam(int fetchSize) {
+        return aggregate(fetchSize, Collectors.groupingBy(
+                row -> row.getTeamName() == null ? NO_TEAM : row.getTeamName(),
+                TreeMap::new,
+                Collectors.counting()));
+    }
+
+    /** 나이대별 회원 수. 키는 구간의 시작 나이 (bucketSize=10 이면 0, 10, 20 ...) */
+    public SortedMap<Integer, Long> ageHistogram(int bucketSize, int fetchSize) {
+        if (bucketSize <= 0) {
+            throw new IllegalArgumentException("bucketSize 는 1 이상이어야 합니다. bucketSize=" + bucketSize);
+        }
+        return aggregate(fetchSize, Collectors.groupingBy(
+                row -> Math.floorDiv(row.getAge(), bucketSize) * bucketSize,
+                TreeMap::new,
+                Collectors.counting()));
+    }
+}
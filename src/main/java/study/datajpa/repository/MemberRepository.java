@@ -4,6 +4,8 @@ import jakarta.persistence.LockModeType;
 import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
 import study.datajpa.dto.MemberDto;
@@ -23,7 +25,12 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
 
     List<Member> findTop3HelloBy();
 
+    /**
+     * org.hibernate.cacheable 힌트를 주면 쿼리 캐시를 사용한다. 쿼리 + 파라미터 별로 결과를 캐시하고,
+     * Member 테이블에 변경이 커밋되면 자동으로 무효화됨. 결과 엔티티는 2차 캐시에서 다시 읽기 때문에 엔티티에 @Cache 가 있어야 효과가 있음.
+     */
 //    @Query(name = "Member.findByUsername") // 생략가능
+    @QueryHints(value = @QueryHint(name = "org.hibernate.cacheable", value = "true"))
     List<Member> findByUsername(@Param("username") String username);
     // 우선순위 : NamedQuery를 먼저 찾고, 없으면 쿼리 메소드로 생성
 
@@ -43,7 +50,9 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     List<Member> findByNames(@Param("names") Collection<String> names);
 
     List<Member> findListByUsername(String username);       /** 결과값이 없으면 빈 컬렉션을 반환해줌 NullPoint 발생 방지 */
+    @QueryHints(value = @QueryHint(name = "org.hibernate.cacheable", value = "true"))
     Member findMemberByUsername(String username);           /** JPA는 결과가 없으면 NoResultException을 던지지만, Spring Data JPA는 결과값이 없으면 Null 반환 */
+    @QueryHints(value = @QueryHint(name = "org.hibernate.cacheable", value = "true"))
     Optional<Member> findOptionalByUsername(String username);    /** 결과가 1개 이상이면 IncorrectResultSizeDataAccessException 발생 */
 
     /**
@@ -58,16 +67,32 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
             countQuery = "select count(m.username) from Member m")
     Page<Member> findByAge(int age, Pageable pageable);
 
+    /** count 쿼리 없이 내용만 조회. count 는 MemberPagingService 에서 병렬/캐시로 따로 구함 */
+    List<Member> findListByAge(int age, Pageable pageable);
+
+    /**
+     * 무한 스크롤용 키셋 스크롤. Slice(limit + 1) 는 결국 OFFSET 을 쓰지만,
+     * Window 는 마지막으로 읽은 (username, id) 다음부터 조회하기 때문에 뒤로 갈수록 느려지지 않는다.
+     * 처음은 ScrollPosition.keyset(), 다음은 window.positionAt(마지막 인덱스) 또는 MemberCursor.toScrollPosition()
+     */
+    @EntityGraph(attributePaths = {"team"})
+    Window<Member> findFirst20ByAgeOrderByUsernameDescIdDesc(int age, ScrollPosition position);
+
     /**
      * 벌크성 업데이트 쿼리는 영속성 컨텍스트를 무시하고 쿼리를 날리기 때문에,
      * 같은 트랜잭션에서 추가적인 조회등을 하는 경우, 영속성 컨텍스트를 초기화 하고 수행해야한다.
      * 마이바티스등 부가적인 걸 사용해서 쿼리를 날리는 경우도, 영속성 컨텍스트에서 인식 하지 못하기 때문에 초기화하는 과정 필요
      * @Modifying(clearAutomatically = true) 해당 옵션을 사용하면 쿼리가 나간후에 자동으로 초기화 해줌.
+     * versioned 를 붙이면 @Version 도 같이 올려서, 이미 읽어둔 회원을 변경 감지로 덮어쓰는 것을 막는다.
      * */
     @Modifying(clearAutomatically = true)
-    @Query("update Member m set m.age = m.age + 1 where m.age >= :age")
+    @Query("update versioned Member m set m.age = m.age + 1 where m.age >= :age")
     int bulkAgePlus(@Param("age") int age);
 
+    /** 청크 단위 벌크 업데이트의 끝 id. 회원이 없으면 0 */
+    @Query("select coalesce(max(m.id), 0) from Member m")
+    long findMaxId();
+
     @Query("select m from Member m left join fetch m.team")
     List<Member> findMemberFetchJoin();
 
@@ -91,4 +116,25 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
 
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     List<Member> findLockByUsername(String username);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Member> findLockById(Long id);
+
+    /**
+     * 아직 처리되지 않은 회원을 최대 pageable.size 건 선점한다. (select ... for update skip locked)
+     * 락 타임아웃 -2 (LockOptions.SKIP_LOCKED) 는 다른 트랜잭션이 잠근 행을 기다리지 않고 건너뛰기 때문에
+     * 여러 워커(스레드, 서버)가 서로 기다리지 않고 각자 다른 회원을 가져간다. 락은 트랜잭션이 끝날 때 풀린다.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select m from Member m where m.processedDate is null order by m.id")
+    List<Member> claimUnprocessed(Pageable pageable);
+
+    /**
+     * 동적 Projection. 반환 타입(UsernameOnly, UsernameOnlyDto, Member ...)을 호출하는 쪽에서 정한다.
+     * 엔티티 대신 필요한 컬럼만 조회하기 때문에 읽기 전용 API 에서 사용.
+     */
+    <T> Optional<T> findProjectionById(Long id, Class<T> type);
+
+    <T> List<T> findProjectionsByUsername(String username, Class<T> type);
 }
@@ -1,9 +1,58 @@
 package study.datajpa.repository;
 
+import study.datajpa.dto.MemberCursor;
+import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public interface MemberRepositoryCustom {
     List<Member> findMemberCustom();
+
+    /**
+     * 키셋 페이징. cursor 가 null 이면 첫 페이지, 아니면 cursor 다음 행부터 limit 건을 조회한다.
+     * 정렬은 username desc, id desc 고정 (findByPage 와 같은 순서 + id 로 동순위 정리)
+     */
+    List<Member> findByAgeKeyset(int age, MemberCursor cursor, int limit);
+
+    /**
+     * 결과를 List 로 모으지 않고 JDBC 커서에서 fetchSize 만큼씩 읽어오는 스트림.
+     * Dto 로 바로 조회하기 때문에 영속성 컨텍스트에 엔티티가 쌓이지 않는다.
+     * 트랜잭션 안에서 사용하고, 다 쓰면 반드시 close 해야함 (try-with-resources)
+     */
+    Stream<MemberDto> streamMemberDto(int fetchSize);
+
+    /**
+     * 엔티티가 필요한 경우. clearInterval 건마다 영속성 컨텍스트를 비워서 메모리 사용량을 일정하게 유지한다.
+     * action 이 끝난 뒤에 clear 하기 때문에 action 안에서는 지연 로딩도 사용할 수 있음.
+     */
+    void forEachMember(int fetchSize, int clearInterval, Consumer<Member> action);
+
+    /**
+     * id 가 [fromId, toId) 범위이고 age 이상인 회원의 나이를 1 올린다. (청크 단위 벌크 업데이트용)
+     * 벌크 연산이지만 영속성 컨텍스트와 2차 캐시에서 바뀐 회원만 제거한다. (clearAutomatically 처럼 전부 비우지 않음)
+     */
+    int bulkAgePlusInRange(int age, long fromId, long toId);
+
+    /**
+     * fromId 부터 chunkSize 건 다음 회원의 id. (다음 청크의 시작 id)
+     * 실제로 있는 id 기준으로 자르기 때문에 비어 있는 id 구간을 청크로 돌지 않는다. 남은 회원이 chunkSize 건 이하면 empty
+     */
+    Optional<Long> findChunkEndId(long fromId, int chunkSize);
+
+    /**
+     * id 목록으로 한 번에 조회. 영속성 컨텍스트와 2차 캐시(CacheMode.NORMAL)에 있는 회원은 DB 에서 다시 읽지 않고,
+     * 나머지는 IN_CHUNK_SIZE 개씩 in 절로 조회한다. (배열 파라미터를 지원하는 DB(H2, PostgreSQL)는 하이버네이트가 배열 하나로 조회) 결과는 ids 순서 그대로이고 없는 id 자리는 null.
+     */
+    List<Member> findAllByIdsInOrder(List<Long> ids);
+
+    /**
+     * username 목록으로 한 번에 조회. 결과는 usernames 순서 (같은 username 끼리는 id 순서)
+     * in 절은 IN_CHUNK_SIZE 개씩 나누고 2의 거듭제곱 개수로 채워서(in_clause_parameter_padding), 입력 크기가 달라도 SQL 모양이 몇 개로 고정된다.
+     * id 만 조회한 뒤 findAllByIdsInOrder 로 엔티티를 가져오기 때문에 캐시된 회원은 다시 읽지 않는다.
+     */
+    List<Member> findAllByUsernamesInOrder(List<String> usernames);
 }
@@ -1,19 +1,201 @@
 package study.datajpa.repository;
 
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Cache;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.query.NativeQuery;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.datajpa.dto.MemberCursor;
+import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
 
-import java.util.List;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @RequiredArgsConstructor
 /** 리포지토리명 + Impl로 이름을 맞춰줘야함 */
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
+    private static final String AGE_CHUNK_QUERY_SPACE = "member_age_chunk";
+    private static final String[] MEMBER_TABLE_SPACE = {"member"};
+    /** in 절 하나에 바인딩하는 최대 파라미터 수 */
+    static final int IN_CHUNK_SIZE = 128;
+
     private final EntityManager em;
 
     @Override
     public List<Member> findMemberCustom() {
         return em.createQuery("select m from Member m").getResultList();
     }
+
+    /**
+     * OFFSET 은 앞의 행을 전부 읽고 버리기 때문에 뒤 페이지로 갈수록 느려진다.
+     * 키셋 조건은 마지막 행 이후부터 바로 읽기 때문에 페이지 깊이와 상관없이 응답 시간이 일정하다.
+     */
+    @Override
+    public List<Member> findByAgeKeyset(int age, MemberCursor cursor, int limit) {
+        TypedQuery<Member> query;
+        if (cursor == null) {
+            query = em.createQuery(
+                    "select m from Member m where m.age = :age" +
+                            " order by m.username desc, m.id desc", Member.class);
+        } else {
+            query = em.createQuery(
+                    "select m from Member m where m.age = :age" +
+                            " and (m.username < :username or (m.username = :username and m.id < :id))" +
+                            " order by m.username desc, m.id desc", Member.class)
+                    .setParameter("username", cursor.getUsername())
+                    .setParameter("id", cursor.getId());
+        }
+        return query.setParameter("age", age)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public Stream<MemberDto> streamMemberDto(int fetchSize) {
+        return em.createQuery(
+                        "select new study.datajpa.dto.MemberDto(m.id, m.username, t.name)" +
+                                " from Member m left join m.team t", MemberDto.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .getResultStream();
+    }
+
+    @Override
+    public void forEachMember(int fetchSize, int clearInterval, Consumer<Member> action) {
+        try (Stream<Member> stream = em.createQuery("select m from Member m", Member.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()) {
+            Iterator<Member> iterator = stream.iterator();
+            int count = 0;
+            while (iterator.hasNext()) {
+                action.accept(iterator.next());
+                if (++count % clearInterval == 0) {
+                    em.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * JPQL 벌크 연산이나 member 테이블로 동기화한 네이티브 쿼리는 Member 캐시 영역 전체를 비우기 때문에
+     * 별도 쿼리 공간으로 실행하고, 바뀐 회원만 직접 영속성 컨텍스트(detach)와 2차 캐시(evict)에서 제거한다.
+     * 쿼리 캐시는 member 테이블의 타임스탬프를 직접 갱신해서, member 를 조회한 캐시된 쿼리만 (영역과 상관없이) 무효가 되게 한다.
+     */
+    @Override
+    public int bulkAgePlusInRange(int age, long fromId, long toId) {
+        List<Long> ids = em.createQuery(
+                        "select m.id from Member m where m.id >= :fromId and m.id < :toId and m.age >= :age", Long.class)
+                .setParameter("fromId", fromId)
+                .setParameter("toId", toId)
+                .setParameter("age", age)
+                .getResultList();
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        int updated = em.createNativeQuery("update member set age = age + 1, version = version + 1 where member_id in (:ids) and age >= :age")
+                .setParameter("ids", ids)
+                .setParameter("age", age)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(AGE_CHUNK_QUERY_SPACE)   // 하이버네이트가 전체 캐시 영역을 비우지 않도록 함
+                .executeUpdate();
+
+        /** 영속성 컨텍스트에 있는 회원만 detach. (getReference 로 찾으면 없는 회원도 프록시를 만듦) */
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(Member.class);
+        for (Long id : ids) {
+            Object managed = session.getPersistenceContextInternal().getEntity(session.generateEntityKey(id, persister));
+            if (managed != null) {
+                em.detach(managed);
+            }
+        }
+
+        TimestampsCache timestamps = session.getFactory().getCache().getTimestampsCache();
+        timestamps.preInvalidate(MEMBER_TABLE_SPACE, session);
+        evictFromSecondLevelCache(ids);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            /** 커밋 전에 다른 트랜잭션이 이전 값을 다시 캐시할 수 있으므로 커밋 후에 한 번 더 제거 */
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictFromSecondLevelCache(ids);
+                    timestamps.invalidate(MEMBER_TABLE_SPACE, session);
+                }
+            });
+        } else {
+            timestamps.invalidate(MEMBER_TABLE_SPACE, session);
+        }
+        return updated;
+    }
+
+    private void evictFromSecondLevelCache(List<Long> ids) {
+        Cache cache = em.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        ids.forEach(id -> cache.evictEntityData(Member.class, id));
+    }
+
+    @Override
+    public Optional<Long> findChunkEndId(long fromId, int chunkSize) {
+        return em.createQuery("select m.id from Member m where m.id >= :fromId order by m.id", Long.class)
+                .setParameter("fromId", fromId)
+                .setFirstResult(chunkSize)
+                .setMaxResults(1)
+                .getResultStream()
+                .findFirst();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Member> findAllByIdsInOrder(List<Long> ids) {
+        /** multiLoad 는 CacheMode 를 지정해야 2차 캐시를 확인한다. (지정하지 않으면 캐시된 id 도 다시 조회함) */
+        return em.unwrap(Session.class)
+                .byMultipleIds(Member.class)
+                .with(CacheMode.NORMAL)
+                .withBatchSize(IN_CHUNK_SIZE)
+                .enableSessionCheck(true)
+                .enableOrderedReturn(true)
+                .multiLoad(ids);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Member> findAllByUsernamesInOrder(List<String> usernames) {
+        Map<String, List<Long>> idsByUsername = new HashMap<>();
+        for (List<String> chunk : chunks(List.copyOf(new LinkedHashSet<>(usernames)))) {
+            em.createQuery("select m.id, m.username from Member m where m.username in :usernames order by m.id", Object[].class)
+                    .setParameter("usernames", chunk)
+                    .getResultList()
+                    .forEach(row -> idsByUsername.computeIfAbsent((String) row[1], k -> new ArrayList<>()).add((Long) row[0]));
+        }
+
+        List<Long> ids = new ArrayList<>();
+        new LinkedHashSet<>(usernames).forEach(username -> ids.addAll(idsByUsername.getOrDefault(username, List.of())));
+        return findAllByIdsInOrder(ids).stream()
+                .filter(Objects::nonNull)   // id 조회 후 삭제된 회원
+                .toList();
+    }
+
+    /**
+     * IN_CHUNK_SIZE 개씩 나눈다. 각 청크의 파라미터 수는 hibernate.query.in_clause_parameter_padding 설정으로
+     * 1, 2, 4 ... IN_CHUNK_SIZE 중 하나로 채워지기 때문에 입력 크기와 상관없이 쿼리 플랜이 몇 개로 고정된다.
+     */
+    static <T> List<List<T>> chunks(List<T> values) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < values.size(); from += IN_CHUNK_SIZE) {
+            chunks.add(values.subList(from, Math.min(from + IN_CHUNK_SIZE, values.size())));
+        }
+        return chunks;
+    }
 }
@@ -19,14 +19,26 @@ public class TeamJpaRepository {
         return team;
     }
 
+    /** MemberJpaRepository.saveAllBatched 참고 */
+    public void saveAllBatched(List<Team> teams, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize 는 1 이상이어야 합니다. batchSize=" + batchSize);
+        }
+        for (int from = 0; from < teams.size(); from += batchSize) {
+            List<Team> chunk = teams.subList(from, Math.min(from + batchSize, teams.size()));
+            chunk.forEach(em::persist);
+            em.flush();
+            chunk.forEach(em::detach);
+        }
+    }
+
     public void delete(Team team) {
         em.remove(team);
     }
 
     public List<Team> findAll() {
-        return em.createQuery(
-                "select t from Team t", Team.class
-        ).getResultList();
+        return em.createNamedQuery("TeamJpa.findAll", Team.class)
+                .getResultList();
     }
 
     public Optional<Team> findById(Long id) {
@@ -35,8 +47,7 @@ public class TeamJpaRepository {
     }
 
     public long count() {
-        return em.createQuery(
-                "select count(t) from Team t", Long.class
-        ).getSingleResult();
+        return em.createNamedQuery("TeamJpa.count", Long.class)
+                .getSingleResult();
     }
 }
@@ -0,0 +1,9 @@
+package study.datajpa.repository;
+
+/**
+ * 인터페이스 기반 Closed Projection.
+ * 프로퍼티를 지정한 만큼만 select 절에 포함되고, 엔티티를 만들지 않기 때문에 영속성 컨텍스트/스냅샷도 생기지 않는다.
+ */
+public interface UsernameOnly {
+    String getUsername();
+}
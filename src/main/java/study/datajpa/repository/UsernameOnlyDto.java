@@ -0,0 +1,17 @@
+package study.datajpa.repository;
+
+/**
+ * 클래스 기반 Projection. 생성자의 파라미터 이름으로 조회할 프로퍼티를 매칭한다.
+ */
+public class UsernameOnlyDto {
+
+    private final String username;
+
+    public UsernameOnlyDto(String username) {
+        this.username = username;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+}
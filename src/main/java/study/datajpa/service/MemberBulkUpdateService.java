@@ -0,0 +1,72 @@
+package study.datajpa.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.BulkUpdateProgress;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.function.Consumer;
+
+/**
+ * bulkAgePlus 를 id 범위 청크로 나눠서 실행한다.
+ * 청크 경계는 실제로 있는 id 로 정하기 때문에(키셋) id 가 듬성듬성해도 청크마다 chunkSize 건씩 처리한다.
+ * 청크마다 별도 트랜잭션으로 커밋하기 때문에 row 락은 청크 크기만큼만, 짧게 잡힌다.
+ * 중간에 실패하면 마지막으로 받은 진행 상황의 nextFromId 부터 다시 실행하면 된다.
+ */
+@Slf4j
+@Service
+public class MemberBulkUpdateService {
+
+    private final MemberRepository memberRepository;
+    private final MemberPagingService memberPagingService;
+    private final TransactionTemplate chunkTransaction;
+
+    @Value("${datajpa.bulk-update.chunk-size:1000}")
+    private int defaultChunkSize;
+
+    public MemberBulkUpdateService(MemberRepository memberRepository, MemberPagingService memberPagingService,
+                                   PlatformTransactionManager transactionManager) {
+        this.memberRepository = memberRepository;
+        this.memberPagingService = memberPagingService;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkUpdateProgress bulkAgePlus(int age) {
+        return bulkAgePlus(age, 0L, defaultChunkSize, progress -> { });
+    }
+
+    /**
+     * 바깥 트랜잭션에 묶이면 청크 커밋이 의미가 없으므로 트랜잭션 없이 실행한다.
+     * @param fromId 시작 id (처음이면 0, 재시작이면 이전 진행 상황의 nextFromId)
+     * @param listener 청크가 커밋될 때마다 호출됨
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkUpdateProgress bulkAgePlus(int age, long fromId, int chunkSize, Consumer<BulkUpdateProgress> listener) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+        long maxId = memberRepository.findMaxId();
+        BulkUpdateProgress progress = new BulkUpdateProgress(fromId, maxId, 0, 0);
+
+        while (!progress.isDone()) {
+            long from = progress.getNextFromId();
+            long to = memberRepository.findChunkEndId(from, chunkSize).orElse(maxId + 1);
+            Integer updated = chunkTransaction.execute(status -> memberRepository.bulkAgePlusInRange(age, from, to));
+            if (updated > 0) {
+                memberPagingService.invalidateCounts();     // 벌크 연산은 엔티티 이벤트가 없음
+            }
+            progress = new BulkUpdateProgress(to, maxId, progress.getChunks() + 1, progress.getUpdatedRows() + updated);
+            log.debug("bulkAgePlus {}", progress);
+            listener.accept(progress);
+        }
+        return progress;
+    }
+}
@@ -0,0 +1,64 @@
+package study.datajpa.service;
+
+import org.hibernate.event.spi.*;
+import org.hibernate.persister.entity.EntityPersister;
+import study.datajpa.entity.Member;
+
+/**
+ * 회원 저장/삭제/수정이 커밋되면 바뀐 나이의 count 캐시를 지운다.
+ * 롤백된 변경은 count 에 영향이 없으므로 무시한다.
+ */
+class MemberCountInvalidator implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+
+    private final MemberPagingService memberPagingService;
+
+    MemberCountInvalidator(MemberPagingService memberPagingService) {
+        this.memberPagingService = memberPagingService;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Member member) {
+            memberPagingService.invalidateCount(member.getAge());
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Member member) {
+            memberPagingService.invalidateCount(member.getAge());
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Member member)) {
+            return;
+        }
+        memberPagingService.invalidateCount(member.getAge());
+        if (event.getOldState() == null) {     // 준영속 엔티티를 merge 한 경우 이전 나이를 알 수 없음
+            memberPagingService.invalidateCounts();
+            return;
+        }
+        int ageIndex = event.getPersister().getEntityMetamodel().getPropertyIndex("age");
+        memberPagingService.invalidateCount((Integer) event.getOldState()[ageIndex]);
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return Member.class.isAssignableFrom(persister.getMappedClass());
+    }
+}
@@ -0,0 +1,48 @@
+package study.datajpa.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.repository.MemberRepository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * 회원 전체를 NDJSON(한 줄에 JSON 하나)으로 내보낸다.
+ * 스트림으로 한 건씩 읽어서 바로 쓰기 때문에 회원 수가 늘어나도 힙 사용량은 일정하다.
+ */
+@Service
+@RequiredArgsConstructor
+public class MemberExportService {
+
+    private static final byte NEW_LINE = '\n';
+
+    private final MemberRepository memberRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${datajpa.export.fetch-size:1000}")
+    private int fetchSize;
+
+    @Transactional(readOnly = true)
+    public long exportNdjson(OutputStream out) throws IOException {
+        long count = 0;
+        try (Stream<MemberDto> members = memberRepository.streamMemberDto(fetchSize)) {
+            Iterator<MemberDto> iterator = members.iterator();
+            while (iterator.hasNext()) {
+                out.write(objectMapper.writeValueAsBytes(iterator.next()));
+                out.write(NEW_LINE);
+                if (++count % fetchSize == 0) {
+                    out.flush();
+                }
+            }
+        }
+        out.flush();
+        return count;
+    }
+}
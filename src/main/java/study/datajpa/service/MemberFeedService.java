@@ -0,0 +1,111 @@
+package study.datajpa.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.MemberCursor;
+import study.datajpa.dto.MemberCursorPage;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 무한 스크롤 회원 피드. 한 윈도우를 돌려줄 때 다음 윈도우를 백그라운드에서 미리 조회해두고,
+ * 클라이언트가 next 토큰으로 요청하면 캐시된 결과를 바로 돌려준다.
+ * 미리 조회한 윈도우는 prefetch-ttl 동안만 보관하므로 그 사이의 변경은 반영되지 않을 수 있다.
+ * 미리 조회가 실패했으면 요청 스레드에서 다시 조회한다.
+ */
+@Slf4j
+@Service
+public class MemberFeedService {
+
+    private final MemberRepository memberRepository;
+    private final TransactionTemplate readOnlyTx;
+    private final ExecutorService prefetchExecutor;
+    private final AsyncCache<FeedKey, MemberCursorPage> prefetched;
+
+    public MemberFeedService(MemberRepository memberRepository, PlatformTransactionManager transactionManager,
+                             @Value("${datajpa.feed.prefetch-threads:2}") int prefetchThreads,
+                             @Value("${datajpa.feed.prefetch-ttl:30s}") Duration prefetchTtl) {
+        this.memberRepository = memberRepository;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.prefetchExecutor = Executors.newFixedThreadPool(prefetchThreads, new CustomizableThreadFactory("member-feed-"));
+        this.prefetched = Caffeine.newBuilder()
+                .expireAfterWrite(prefetchTtl)
+                .maximumSize(10_000)
+                .executor(prefetchExecutor)
+                .buildAsync();
+    }
+
+    /**
+     * @param cursor 이전 응답의 next 토큰. 처음이면 null
+     */
+    public MemberCursorPage feed(int age, String cursor) {
+        FeedKey key = new FeedKey(age, cursor);
+        MemberCursorPage page = prefetchedPage(key);
+        prefetched.synchronous().invalidate(key);
+        if (page == null) {
+            page = load(key);
+        }
+
+        if (page.getNext() != null) {
+            prefetch(age, page.getNext());
+        }
+        return page;
+    }
+
+    /** 미리 조회한 윈도우. 없거나 미리 조회가 실패했으면 null (요청 스레드에서 다시 조회) */
+    private MemberCursorPage prefetchedPage(FeedKey key) {
+        CompletableFuture<MemberCursorPage> ready = prefetched.getIfPresent(key);
+        if (ready == null) {
+            return null;
+        }
+        try {
+            return ready.join();
+        } catch (CompletionException | CancellationException e) {
+            log.debug("prefetch failed, loading again : {}", key, e);
+            return null;
+        }
+    }
+
+    /** 이미 조회중이거나 조회된 윈도우면 새로 조회하지 않음 */
+    CompletableFuture<MemberCursorPage> prefetch(int age, String cursor) {
+        return prefetched.get(new FeedKey(age, cursor), this::load);
+    }
+
+    private MemberCursorPage load(FeedKey key) {
+        ScrollPosition position = key.cursor() == null
+                ? ScrollPosition.keyset()
+                : MemberCursor.decode(key.cursor()).toScrollPosition();
+        return readOnlyTx.execute(status -> {
+            Window<Member> window = memberRepository.findFirst20ByAgeOrderByUsernameDescIdDesc(key.age(), position);
+            String next = window.hasNext() ? MemberCursor.after(window.getContent().get(window.size() - 1)).encode() : null;
+            return new MemberCursorPage(window.map(m -> new MemberDto(m.getId(), m.getUsername(),
+                    m.getTeam() == null ? null : m.getTeam().getName())).getContent(), next);
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        prefetchExecutor.shutdownNow();
+    }
+
+    private record FeedKey(int age, String cursor) {
+    }
+}
@@ -0,0 +1,193 @@
+package study.datajpa.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 나이별 회원 페이징. 내용 조회와 count 를 어떻게 구할지 CountMode 로 고른다.
+ * 큰 테이블에서는 페이지 내용보다 count 가 더 비싸기 때문에
+ * PARALLEL : 별도 커넥션(EntityManager)에서 내용 조회와 동시에 count. 요청 하나가 커넥션을 두 개 쓰기 때문에
+ *            동시 요청 수를 커넥션 풀 크기 - count.threads 이하로 제한해야 한다. (ConcurrencyLimitFilter 기본 permits)
+ * CACHED   : refresh-after 가 지나면 백그라운드에서 다시 세고, expire-after 보다 오래된 값은 쓰지 않음.
+ *            회원 저장/삭제/나이 변경이 커밋되면 해당 나이의 캐시를 지운다. (벌크 연산은 invalidateCounts 직접 호출)
+ */
+@Service
+public class MemberPagingService implements SmartInitializingSingleton {
+
+    public enum CountMode { EXACT, PARALLEL, CACHED }
+
+    /** countByAge 와 같은 쿼리. 취소하려면 Statement 가 필요해서 SQL 로 실행한다. */
+    private static final String COUNT_BY_AGE_SQL = "select count(*) from member where age = ?";
+
+    private final MemberRepository memberRepository;
+    private final EntityManagerFactory emf;
+    private final ExecutorService countExecutor;
+    private final LoadingCache<Integer, Long> countCache;
+
+    public MemberPagingService(MemberRepository memberRepository, EntityManagerFactory emf,
+                               @Value("${datajpa.count.threads:4}") int countThreads,
+                               @Value("${datajpa.count.cache.refresh-after:10s}") Duration refreshAfter,
+                               @Value("${datajpa.count.cache.expire-after:1m}") Duration expireAfter) {
+        this.memberRepository = memberRepository;
+        this.emf = emf;
+        this.countExecutor = Executors.newFixedThreadPool(countThreads, new CustomizableThreadFactory("member-count-"));
+        this.countCache = Caffeine.newBuilder()
+                .refreshAfterWrite(refreshAfter)
+                .expireAfterWrite(expireAfter)
+                .executor(countExecutor)
+                .build(this::countByAge);
+    }
+
+    /**
+     * 트랜잭션 없이 호출해야 한다. 바깥 트랜잭션이 커넥션을 잡은 채로 count 커넥션을 기다리면
+     * 커넥션 풀이 모자랄 때 서로 기다리게 된다.
+     */
+    public Page<Member> findByAge(int age, Pageable pageable, CountMode mode) {
+        return switch (mode) {
+            case EXACT -> {
+                List<Member> content = memberRepository.findListByAge(age, pageable);
+                yield PageableExecutionUtils.getPage(content, pageable, () -> countByAge(age));
+            }
+            case PARALLEL -> {
+                ParallelCount count = new ParallelCount(age);
+                try {
+                    List<Member> content = memberRepository.findListByAge(age, pageable);
+                    yield PageableExecutionUtils.getPage(content, pageable, count::join);
+                } finally {
+                    count.cancel();     // 마지막 페이지라서 count 가 필요 없었거나 내용 조회가 실패한 경우
+                }
+            }
+            case CACHED -> {
+                List<Member> content = memberRepository.findListByAge(age, pageable);
+                yield PageableExecutionUtils.getPage(content, pageable, () -> countCache.get(age));
+            }
+        };
+    }
+
+    public long cachedCountByAge(int age) {
+        return countCache.get(age);
+    }
+
+    public void invalidateCount(int age) {
+        countCache.invalidate(age);
+    }
+
+    /** 벌크 연산처럼 엔티티 이벤트 없이 나이가 바뀐 경우 */
+    public void invalidateCounts() {
+        countCache.invalidateAll();
+    }
+
+    /** 호출한 스레드의 트랜잭션/영속성 컨텍스트와 상관없이 새 EntityManager(커넥션) 로 센다. */
+    private long countByAge(int age) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.createQuery("select count(m) from Member m where m.age = :age", Long.class)
+                    .setParameter("age", age)
+                    .getSingleResult();
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * 병렬 count. CompletableFuture.cancel 은 이미 실행 중인 쿼리를 멈추지 못하기 때문에
+     * JDBC Statement 를 들고 있다가 Statement.cancel 로 DB 에서 실행 중인 count 도 취소한다.
+     */
+    private final class ParallelCount {
+
+        private final AtomicReference<Statement> running = new AtomicReference<>();
+        private final CompletableFuture<Long> result;
+        private volatile boolean cancelled;
+
+        ParallelCount(int age) {
+            this.result = CompletableFuture.supplyAsync(() -> count(age), countExecutor);
+        }
+
+        long join() {
+            return result.join();
+        }
+
+        void cancel() {
+            cancelled = true;
+            result.cancel(false);
+            Statement statement = running.get();
+            if (statement != null) {
+                try {
+                    statement.cancel();
+                } catch (SQLException ignored) {
+                    // 이미 끝났거나 닫힌 Statement
+                }
+            }
+        }
+
+        private long count(int age) {
+            if (cancelled) {
+                throw new CancellationException();
+            }
+            EntityManager em = emf.createEntityManager();
+            try {
+                return em.unwrap(Session.class).doReturningWork(connection -> {
+                    try (PreparedStatement statement = connection.prepareStatement(COUNT_BY_AGE_SQL)) {
+                        running.set(statement);
+                        if (cancelled) {
+                            throw new CancellationException();
+                        }
+                        statement.setInt(1, age);
+                        try (ResultSet rs = statement.executeQuery()) {
+                            rs.next();
+                            return rs.getLong(1);
+                        }
+                    } finally {
+                        running.set(null);
+                    }
+                });
+            } finally {
+                em.close();
+            }
+        }
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        MemberCountInvalidator invalidator = new MemberCountInvalidator(this);
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, invalidator);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, invalidator);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, invalidator);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        countExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,43 @@
+package study.datajpa.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+/**
+ * 같은 회원을 동시에 수정하는 경우.
+ * addAge 는 낙관적 락(@Version). 충돌하면 트랜잭션 전체를 다시 실행한다. (@Retryable 이 @Transactional 바깥에서 동작)
+ * addAgePessimistic 은 select ... for update 로 잠그고 수정. 충돌이 없지만 같은 회원을 수정하는 요청은 한 줄로 기다린다.
+ */
+@Service
+@RequiredArgsConstructor
+public class MemberService {
+
+    private final MemberRepository memberRepository;
+
+    /** 재시도 간격은 delay 부터 multiplier 배씩, maxDelay 까지. random 으로 충돌한 요청끼리 다시 겹치지 않게 흩어줌 */
+    @Retryable(label = "MemberService.addAge",
+            retryFor = OptimisticLockingFailureException.class,
+            maxAttemptsExpression = "${datajpa.retry.optimistic-lock.max-attempts:5}",
+            backoff = @Backoff(delayExpression = "${datajpa.retry.optimistic-lock.delay:10}",
+                    maxDelayExpression = "${datajpa.retry.optimistic-lock.max-delay:200}",
+                    multiplier = 2, random = true))
+    @Transactional
+    public int addAge(Long memberId, int delta) {
+        Member member = memberRepository.findById(memberId).orElseThrow();
+        member.setAge(member.getAge() + delta);
+        return member.getAge();
+    }
+
+    @Transactional
+    public int addAgePessimistic(Long memberId, int delta) {
+        Member member = memberRepository.findLockById(memberId).orElseThrow();
+        member.setAge(member.getAge() + delta);
+        return member.getAge();
+    }
+}
@@ -0,0 +1,39 @@
+package study.datajpa.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 처리되지 않은 회원을 여러 워커가 나눠서 처리하는 작업 큐.
+ * 워커는 processNext 를 0 이 나올 때까지 반복해서 호출하면 된다.
+ */
+@Service
+@RequiredArgsConstructor
+public class MemberWorkQueue {
+
+    private final MemberRepository memberRepository;
+
+    /**
+     * 최대 batchSize 건을 선점해서 처리하고 처리 완료로 표시한다. 선점부터 완료 표시까지 한 트랜잭션.
+     * processor 에서 예외가 나면 롤백되어 다른 워커가 다시 가져갈 수 있다.
+     * @return 처리한 회원 수. 0 이면 남은 작업이 없음 (다른 워커가 잡고 있는 회원은 제외)
+     */
+    @Transactional
+    public int processNext(int batchSize, Consumer<Member> processor) {
+        List<Member> claimed = memberRepository.claimUnprocessed(PageRequest.ofSize(batchSize));
+        LocalDateTime now = LocalDateTime.now();
+        for (Member member : claimed) {
+            processor.accept(member);
+            member.markProcessed(now);
+        }
+        return claimed.size();
+    }
+}
@@ -0,0 +1,55 @@
+package study.datajpa.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+/**
+ * 샘플 회원(member1) 저장. 예전에는 MemberController 의 @PostConstruct 에서 저장했는데,
+ * 그러면 시작 스레드가 EntityManagerFactory 생성과 insert 를 기다려야 해서 애플리케이션이 다 뜬 다음(ApplicationReadyEvent)으로 옮겼다.
+ * datajpa.seed.async=true 면 백그라운드 스레드에서 저장하기 때문에 시작 시간에 포함되지 않는다. (fast-startup 프로필)
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "datajpa.seed.enabled", havingValue = "true", matchIfMissing = true)
+public class SampleDataLoader {
+
+    private final MemberRepository memberRepository;
+    private final TaskExecutor taskExecutor;
+    private final boolean async;
+
+    public SampleDataLoader(MemberRepository memberRepository,
+                            @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                            @Value("${datajpa.seed.async:false}") boolean async) {
+        this.memberRepository = memberRepository;
+        this.taskExecutor = taskExecutor;
+        this.async = async;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (async) {
+            taskExecutor.execute(() -> {
+                try {
+                    load();
+                } catch (RuntimeException e) {      // 저장 전에 종료되는 경우 등. 시작에는 영향을 주지 않음
+                    log.warn("sample data not loaded : {}", e.toString());
+                }
+            });
+        } else {
+            load();
+        }
+    }
+
+    public void load() {
+        memberRepository.save(new Member("member1"));
+        log.debug("sample data loaded");
+    }
+}
@@ -0,0 +1,59 @@
+package study.datajpa.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitFilterTest {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, Duration.ZERO, meterRegistry);
+
+    @Test
+    public void 제한_초과시_503() throws Exception {
+        //given
+        MockHttpServletResponse inner = new MockHttpServletResponse();
+        MockHttpServletResponse outer = new MockHttpServletResponse();
+
+        //when 첫 요청이 처리되는 동안(permit 을 잡고 있는 동안) 두번째 요청이 들어옴
+        filter.doFilter(new MockHttpServletRequest("GET", "/members/1"), outer, (req, res) ->
+                filter.doFilter(new MockHttpServletRequest("GET", "/members/2"), inner, new MockFilterChain()));
+
+        //then
+        assertEquals(200, outer.getStatus());
+        assertEquals(503, inner.getStatus());
+        assertEquals(1, meterRegistry.get("http.server.requests.rejected").counter().count());
+    }
+
+    @Test
+    public void 처리가_끝나면_반납() throws Exception {
+        //when
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/members/1"), first, new MockFilterChain());
+        filter.doFilter(new MockHttpServletRequest("GET", "/members/2"), second, new MockFilterChain());
+
+        //then
+        assertEquals(200, first.getStatus());
+        assertEquals(200, second.getStatus());
+    }
+
+    @Test
+    public void 액추에이터는_제한하지_않음() throws Exception {
+        //given
+        MockHttpServletResponse health = new MockHttpServletResponse();
+
+        //when 다른 요청이 permit 을 잡고 있는 동안 헬스 체크가 들어옴
+        filter.doFilter(new MockHttpServletRequest("GET", "/members/1"), new MockHttpServletResponse(), (req, res) ->
+                filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health/readiness"), health, new MockFilterChain()));
+
+        //then
+        assertEquals(200, health.getStatus());
+    }
+}
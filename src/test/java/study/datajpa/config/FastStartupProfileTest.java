@@ -0,0 +1,40 @@
+package study.datajpa.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.test.context.ActiveProfiles;
+import study.datajpa.repository.MemberRepository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** 프로필 설정이 다르기 때문에 컨텍스트가 따로 뜬다. 스키마를 다시 만들지 않도록 DB 도 따로 쓴다. */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:fast-startup;DB_CLOSE_DELAY=-1")
+@ActiveProfiles({"test", "fast-startup"})
+class FastStartupProfileTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired LocalContainerEntityManagerFactoryBean entityManagerFactoryBean;
+    @Autowired ConfigurableApplicationContext context;
+
+    @Test
+    public void 리포지토리는_지연_초기화() throws Exception {
+        //then EntityManagerFactory 는 백그라운드에서 만들고, 리포지토리는 처음 사용할 때 만든다
+        assertNotNull(entityManagerFactoryBean.getBootstrapExecutor());
+        assertTrue(context.getBeanFactory().getBeanDefinition("memberRepository").isLazyInit());
+    }
+
+    @Test
+    public void 샘플_데이터는_백그라운드에서_저장() throws Exception {
+        //when 리포지토리는 처음 사용할 때 초기화됨
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (memberRepository.findListByUsername("member1").isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+
+        //then
+        assertEquals(1, memberRepository.findListByUsername("member1").size());
+    }
+}
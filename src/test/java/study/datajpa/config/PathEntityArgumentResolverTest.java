@@ -0,0 +1,132 @@
+package study.datajpa.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static study.datajpa.support.SqlStatementAssertions.assertSelectCount;
+
+/**
+ * 2차 캐시는 커밋된 데이터만 들어가기 때문에 트랜잭션 없이 저장하고 지운다.
+ * @AutoConfigureMockMvc 를 쓰면 컨텍스트가 하나 더 떠서 스키마를 다시 만들기 때문에 기존 컨텍스트로 MockMvc 를 만든다.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class PathEntityArgumentResolverTest {
+
+    @Autowired WebApplicationContext context;
+    @Autowired MemberRepository memberRepository;
+    @Autowired MeterRegistry meterRegistry;
+    @Autowired EntityManagerFactory entityManagerFactory;
+
+    MockMvc mockMvc;
+    List<Long> saved = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAllById(saved);
+    }
+
+    @Test
+    public void 캐시된_엔티티는_DB_조회_없이_변환() throws Exception {
+        //given
+        Long id = memberRepository.save(new Member("path1")).getId();
+        saved.add(id);
+        mockMvc.perform(get("/members2/{id}", id));     // 캐시에 올림
+        double before = conversions("cache");
+
+        //when
+        assertSelectCount(0, () -> perform("/members2/" + id, "path1"));
+
+        //then
+        assertEquals(before + 1, conversions("cache"));
+    }
+
+    @Test
+    public void 여러_id_한번에_조회() throws Exception {
+        //given
+        for (int i = 0; i < 3; i++) {
+            saved.add(memberRepository.save(new Member("batch" + i)).getId());
+        }
+        Cache cache = entityManagerFactory.getCache();
+        saved.forEach(id -> cache.evict(Member.class, id));
+        memberRepository.findById(saved.get(1));       // 하나만 캐시에 올림
+        String ids = saved.get(2) + "," + saved.get(1) + "," + saved.get(0);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long hitsBefore = statistics.getSecondLevelCacheHitCount();
+        long loadsBefore = statistics.getEntityLoadCount();
+
+        //when 캐시에 없는 두 건만 한 번에 조회, 입력 순서대로 반환
+        assertSelectCount(1, () -> perform("/members2/batch/" + ids, "[\"batch2\",\"batch1\",\"batch0\"]"));
+
+        //then
+        assertEquals(hitsBefore + 1, statistics.getSecondLevelCacheHitCount());
+        assertEquals(loadsBefore + 2, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    public void 변환할_수_없는_id_는_400() throws Exception {
+        mockMvc.perform(get("/members2/{id}", "abc"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/members2/batch/{ids}", "1,abc"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void id_목록이_너무_길면_400() throws Exception {
+        String ids = LongStream.rangeClosed(1, PathEntityArgumentResolver.MAX_IDS + 1)
+                .mapToObj(String::valueOf)
+                .collect(Collectors.joining(","));
+
+        mockMvc.perform(get("/members2/batch/{ids}", ids))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void 없는_id_는_404() throws Exception {
+        mockMvc.perform(get("/members2/{id}", Long.MAX_VALUE))
+                .andExpect(status().isNotFound());
+    }
+
+    private void perform(String uri, String expected) {
+        try {
+            mockMvc.perform(get(uri))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string(expected));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private double conversions(String source) {
+        var counter = meterRegistry.find("entity.path.conversions")
+                .tags("entity", "Member", "fetch", "PROJECTION", "source", source).counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
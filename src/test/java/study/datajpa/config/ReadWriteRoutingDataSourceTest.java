@@ -0,0 +1,107 @@
+package study.datajpa.config;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** 프라이머리/레플리카 대신 H2 메모리 DB 두 개. 레플리카 지연은 replica_status 테이블 값으로 흉내낸다. */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+        "spring.jpa.open-in-view=false",                     // 레플리카 라우팅에 필요 (RoutingDataSourceConfig)
+        "datajpa.datasource.replica.enabled=true",
+        "datajpa.datasource.replica.url=" + ReadWriteRoutingDataSourceTest.REPLICA_URL,
+        "datajpa.datasource.replica.lag-query=select lag_seconds from replica_status",
+        "datajpa.datasource.replica.max-lag=5s",
+        "datajpa.datasource.replica.check-interval=1h"     // 테스트에서 직접 check() 호출
+})
+@ActiveProfiles("test")
+class ReadWriteRoutingDataSourceTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired ReplicaHealth replicaHealth;
+    @Autowired ObjectProvider<OpenEntityManagerInViewInterceptor> openEntityManagerInView;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        setReplicaLag(0);
+    }
+
+    @Test
+    public void 읽기전용_트랜잭션은_레플리카() throws Exception {
+        //when
+        String readOnlyUrl = connectionUrl(true);
+        String writeUrl = connectionUrl(false);
+
+        //then
+        assertTrue(readOnlyUrl.contains("routing-replica"));
+        assertTrue(writeUrl.contains("routing-primary"));
+    }
+
+    @Test
+    public void 레플리카_지연시_프라이머리() throws Exception {
+        //given
+        setReplicaLag(10);
+
+        //when
+        String readOnlyUrl = connectionUrl(true);
+
+        //then
+        assertFalse(replicaHealth.isAvailable());
+        assertTrue(readOnlyUrl.contains("routing-primary"));
+    }
+
+    @Test
+    public void 같은_요청에서_읽기_다음_쓰기는_프라이머리() throws Exception {
+        //given 요청 하나를 흉내낸다. (open-in-view 가 켜져 있으면 요청 범위 EntityManager 가 묶임)
+        WebRequest request = new ServletWebRequest(new MockHttpServletRequest("GET", "/members"));
+        openEntityManagerInView.ifAvailable(interceptor -> interceptor.preHandle(request));
+        try {
+            //when
+            String readOnlyUrl = connectionUrl(true);
+            String writeUrl = connectionUrl(false);
+
+            //then
+            assertTrue(readOnlyUrl.contains("routing-replica"));
+            assertTrue(writeUrl.contains("routing-primary"));
+        } finally {
+            openEntityManagerInView.ifAvailable(interceptor -> interceptor.afterCompletion(request, null));
+        }
+    }
+
+    private String connectionUrl(boolean readOnly) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(readOnly);
+        return tx.execute(status -> em.unwrap(Session.class).doReturningWork(c -> c.getMetaData().getURL()));
+    }
+
+    private void setReplicaLag(int seconds) throws Exception {
+        try (Connection connection = DriverManager.getConnection(REPLICA_URL, "sa", "")) {
+            connection.createStatement().execute("create table if not exists replica_status(lag_seconds int)");
+            connection.createStatement().execute("delete from replica_status");
+            connection.createStatement().execute("insert into replica_status values (" + seconds + ")");
+        }
+        replicaHealth.check();
+    }
+}
@@ -0,0 +1,40 @@
+package study.datajpa.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** test 프로필은 워밍업을 끄기 때문에 직접 켠다. 설정이 다르면 컨텍스트가 따로 뜨므로 DB 도 따로 사용 */
+@SpringBootTest(properties = {
+        "datajpa.warm-up.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:warm-up;DB_CLOSE_DELAY=-1"
+})
+@ActiveProfiles("test")
+@Transactional(readOnly = true)
+class StartupWarmUpTest {
+
+    @Autowired StartupWarmUp startupWarmUp;
+    @Autowired EntityManagerFactory emf;
+
+    @Test
+    public void 워밍업_후_쿼리_플랜_재사용() throws Exception {
+        //given 컨텍스트가 뜰 때 워밍업이 이미 실행됨
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        long misses = statistics.getQueryPlanCacheMissCount();
+        long hits = statistics.getQueryPlanCacheHitCount();
+
+        //when
+        startupWarmUp.workload();
+
+        //then 새로 만든 쿼리 플랜 없이 캐시된 플랜만 사용
+        assertEquals(misses, statistics.getQueryPlanCacheMissCount());
+        assertTrue(statistics.getQueryPlanCacheHitCount() > hits);
+    }
+}
@@ -0,0 +1,60 @@
+package study.datajpa.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/** @AutoConfigureMockMvc 를 쓰면 컨텍스트가 하나 더 떠서 스키마를 다시 만들기 때문에 기존 컨텍스트로 MockMvc 를 만든다. */
+@SpringBootTest
+@ActiveProfiles("test")
+class MemberControllerTest {
+
+    @Autowired WebApplicationContext context;
+
+    MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    @Test
+    public void count_모드는_대소문자_구분없음() throws Exception {
+        mockMvc.perform(get("/members").param("age", "10").param("count", "parallel"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/members").param("age", "10").param("count", "CACHED"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void 없는_count_모드는_400() throws Exception {
+        mockMvc.perform(get("/members").param("age", "10").param("count", "fast"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void 키셋_size_범위_밖이면_400() throws Exception {
+        mockMvc.perform(get("/members/keyset").param("age", "10").param("size", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/members/keyset").param("age", "10").param("size", "-1"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/members/keyset").param("age", "10").param("size", String.valueOf(MemberController.MAX_KEYSET_SIZE + 1)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void 잘못된_커서는_400() throws Exception {
+        mockMvc.perform(get("/members/keyset").param("age", "10").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/members/feed").param("age", "10").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+}
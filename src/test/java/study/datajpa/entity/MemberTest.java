@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.Rollback;
+import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.repository.MemberRepository;
 
@@ -14,6 +15,7 @@ import java.util.List;
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
+@ActiveProfiles("test")
 @Transactional
 @Rollback(value = false)
 class MemberTest {
@@ -70,4 +72,23 @@ class MemberTest {
         System.out.println("findMember.lastModifiedDate = " + findMember.getLastModifiedDate());
         System.out.println("findMember.lastModifiedBy = " + findMember.getLastModifiedBy());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void 트랜잭션_단위_Auditing(@Autowired MemberRepository memberRepository) throws Exception {
+        //given
+        Member member1 = new Member("member1");
+        Member member2 = new Member("member2");
+
+        //when
+        memberRepository.save(member1);
+        Thread.sleep(10);
+        memberRepository.save(member2);
+        em.flush();
+
+        //then
+        /** 같은 트랜잭션에서 저장한 엔티티는 등록자/등록시각이 같다. */
+        assertNotNull(member1.getCreatedBy());
+        assertEquals(member1.getCreatedBy(), member2.getCreatedBy());
+        assertEquals(member1.getCreateDate(), member2.getCreateDate());
+    }
+}
@@ -0,0 +1,119 @@
+package study.datajpa.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class RepositoryMetricsAspectTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Test
+    public void 리포지토리_메소드_메트릭() throws Exception {
+        //given
+        memberRepository.save(new Member("member1", 10));
+        em.flush();
+        em.clear();
+
+        /** 메트릭은 컨텍스트를 같이 쓰는 다른 테스트도 기록하기 때문에 호출 전후의 차이로 검증한다. */
+        Recorded rowsBefore = recorded("repository.rows", "findMemberCustom");
+        Recorded statementsBefore = recorded("repository.sql.statements", "findMemberCustom");
+        Recorded entitiesBefore = recorded("repository.entities.loaded", "findMemberCustom");
+
+        //when
+        List<Member> members = memberRepository.findMemberCustom();
+
+        //then
+        assertEquals(new Recorded(1, members.size()), recorded("repository.rows", "findMemberCustom").minus(rowsBefore));
+        assertEquals(new Recorded(1, 1), recorded("repository.sql.statements", "findMemberCustom").minus(statementsBefore));
+        assertEquals(new Recorded(1, members.size()), recorded("repository.entities.loaded", "findMemberCustom").minus(entitiesBefore));
+    }
+
+    @Test
+    public void 엔티티가_아닌_결과는_조회_건수에서_제외() throws Exception {
+        //given
+        Recorded countRows = recorded("repository.rows", "count");
+        Recorded bulkRows = recorded("repository.rows", "bulkAgePlus");
+        Recorded notFoundRows = recorded("repository.rows", "findMemberByUsername");
+
+        //when
+        memberRepository.count();
+        memberRepository.bulkAgePlus(1000);
+        memberRepository.findMemberByUsername("noSuchMember");
+
+        //then count(long), bulkAgePlus(int) 는 기록하지 않고, 엔티티 단건 조회는 없으면 0건
+        assertEquals(new Recorded(0, 0), recorded("repository.rows", "count").minus(countRows));
+        assertEquals(new Recorded(0, 0), recorded("repository.rows", "bulkAgePlus").minus(bulkRows));
+        assertEquals(new Recorded(1, 0), recorded("repository.rows", "findMemberByUsername").minus(notFoundRows));
+    }
+
+    @Test
+    public void 예외가_나도_SQL_수는_기록() throws Exception {
+        //given 단건 조회인데 결과가 2건
+        memberRepository.save(new Member("metricsDuplicate", 10));
+        memberRepository.save(new Member("metricsDuplicate", 20));
+        em.flush();
+        Recorded statementsBefore = recorded("repository.sql.statements", "findMemberByUsername");
+        Recorded rowsBefore = recorded("repository.rows", "findMemberByUsername");
+
+        //when
+        assertThrows(IncorrectResultSizeDataAccessException.class, () -> memberRepository.findMemberByUsername("metricsDuplicate"));
+
+        //then
+        assertEquals(new Recorded(1, 1), recorded("repository.sql.statements", "findMemberByUsername").minus(statementsBefore));
+        assertEquals(new Recorded(0, 0), recorded("repository.rows", "findMemberByUsername").minus(rowsBefore));
+    }
+
+    @Test
+    public void SQL_종류별_카운트() throws Exception {
+        //given
+        SqlStatementCount before = SqlStatementCounter.current();
+
+        //when
+        memberRepository.save(new Member("member1", 10));
+        em.flush();
+        memberRepository.findByUsernameAndAgeGreaterThan("member1", 5);
+
+        //then
+        SqlStatementCount executed = SqlStatementCounter.current().minus(before);
+        assertEquals(1, executed.getInsert());
+        assertTrue(executed.getSelect() >= 1);
+    }
+
+    /** 지금까지 기록된 횟수와 합계. 아직 한 번도 기록되지 않았으면 0 */
+    private Recorded recorded(String name, String method) {
+        DistributionSummary summary = meterRegistry.find(name)
+                .tags("repository", "MemberRepository", "method", method)
+                .summary();
+        return summary == null ? new Recorded(0, 0) : new Recorded(summary.count(), (long) summary.totalAmount());
+    }
+
+    record Recorded(long count, long total) {
+        Recorded minus(Recorded before) {
+            return new Recorded(count - before.count, total - before.total);
+        }
+    }
+}
@@ -1,21 +1,33 @@
 package study.datajpa.repository;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.entity.Member;
+import study.datajpa.metrics.SqlStatementCount;
 
+import java.util.ArrayList;
 import java.util.List;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
+import static study.datajpa.support.SqlStatementAssertions.assertSelectCount;
+import static study.datajpa.support.SqlStatementAssertions.countStatements;
 
 @SpringBootTest
+@ActiveProfiles("test")
 @Transactional
 class MemberJpaRepositoryTest {
     @Autowired
     MemberJpaRepository memberJpaRepository;
 
+    @PersistenceContext
+    EntityManager em;
+
     @Test
     public void testMember() throws Exception {
         //given
@@ -107,8 +119,8 @@ class MemberJpaRepositoryTest {
         int limit = 3;
 
         //when
-        List<Member> result = memberJpaRepository.findByPage(age, offset, limit);
-        Long totalCount = memberJpaRepository.totalCount(age);
+        List<Member> result = assertSelectCount(1, () -> memberJpaRepository.findByPage(age, offset, limit));
+        Long totalCount = assertSelectCount(1, () -> memberJpaRepository.totalCount(age));
 
         //then
         assertEquals(3, result.size());
@@ -132,4 +144,50 @@ class MemberJpaRepositoryTest {
         //then
         assertEquals(4, count);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void saveAllBatched() throws Exception {
+        //given
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            members.add(new Member("batch" + i, i));
+        }
+
+        //when
+        /**
+         * 3건씩 flush 하기 때문에 insert 는 JDBC 배치 ceil(10/3) = 4번으로 실행된다. (배치가 안 되면 10번)
+         * pooled-lo 시퀀스(allocationSize 50)라서 10건 저장에 시퀀스 조회는 최대 1번
+         */
+        SqlStatementCount executed = countStatements(() -> memberJpaRepository.saveAllBatched(members, 3));
+        assertEquals(4, executed.getInsert(), () -> "insert 배치 수가 다릅니다. 실행된 SQL : " + executed);
+        assertTrue(executed.getSelect() <= 1, () -> "시퀀스 조회가 너무 많습니다. 실행된 SQL : " + executed);
+
+        //then
+        for (Member member : members) {
+            assertNotNull(member.getId());
+            assertFalse(em.contains(member));
+            assertEquals(member.getUsername(), memberJpaRepository.find(member.getId()).getUsername());
+        }
+    }
+
+    @Test
+    public void saveAllBatched_는_저장한_엔티티만_준영속() throws Exception {
+        //given 호출 전에 영속 상태였던 회원
+        Member managed = memberJpaRepository.save(new Member("managed", 10));
+        List<Member> members = List.of(new Member("batch0", 0), new Member("batch1", 1));
+
+        //when
+        memberJpaRepository.saveAllBatched(members, 1);
+
+        //then
+        assertTrue(em.contains(managed));
+        members.forEach(member -> assertFalse(em.contains(member)));
+    }
+
+    @Test
+    public void saveAllBatched_batchSize_는_1_이상() throws Exception {
+        //@Repository 예외 변환으로 IllegalArgumentException -> InvalidDataAccessApiUsageException
+        assertThrows(InvalidDataAccessApiUsageException.class,
+                () -> memberJpaRepository.saveAllBatched(List.of(new Member("batch0", 0)), 0));
+    }
+}
@@ -0,0 +1,46 @@
+package study.datajpa.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.support.QueryPlanAssertions;
+
+import java.util.List;
+
+import static study.datajpa.support.QueryPlanAssertions.assertUsesIndex;
+
+/**
+ * Member 의 자주 쓰는 조회가 인덱스를 타는지 실행 계획으로 확인 (Member 의 @Table(indexes))
+ * @Import 때문에 컨텍스트가 따로 뜨고 ddl-auto 로 스키마를 다시 만들기 때문에, 다른 테스트와 DB 를 나눠 쓴다.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:query-plan;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+@Transactional
+@Import(QueryPlanAssertions.Config.class)
+class MemberQueryPlanTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired MemberJpaRepository memberJpaRepository;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Test
+    public void username_조회() throws Exception {
+        assertUsesIndex(em, "idx_member_username", () -> memberRepository.findListByUsername("member1"));
+        assertUsesIndex(em, "idx_member_username", () -> memberRepository.findByUsernameAndAgeGreaterThan("member1", 10));
+        assertUsesIndex(em, "idx_member_username", () -> memberRepository.findByNames(List.of("member1", "member2")));
+    }
+
+    @Test
+    public void age_조회() throws Exception {
+        assertUsesIndex(em, "idx_member_age_username", () -> memberJpaRepository.findByPage(10, 0, 3));
+        assertUsesIndex(em, "idx_member_age_username", () -> memberJpaRepository.totalCount(10));
+        assertUsesIndex(em, "idx_member_age_username", () -> memberRepository.findByAgeKeyset(10, null, 20));
+    }
+}
@@ -0,0 +1,99 @@
+package study.datajpa.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import java.util.SortedMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** 다른 테스트가 커밋한 회원이 있을 수 있기 때문에 이 테스트에서 만든 팀/나이대만 검증한다. */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class MemberReportRepositoryTest {
+
+    @Autowired MemberReportRepository memberReportRepository;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Test
+    public void 팀별_회원수() throws Exception {
+        //given
+        Team teamA = teamRepository.save(new Team("reportTeamA"));
+        Team teamB = teamRepository.save(new Team("reportTeamB"));
+        for (int i = 0; i < 5; i++) {
+            memberRepository.save(new Member("report" + i, 10, i < 3 ? teamA : teamB));
+        }
+        em.flush();
+        em.clear();
+
+        //when
+        SortedMap<String, Long> perTeam = memberReportRepository.countMembersPerTeam(2);
+
+        //then
+        assertEquals(3L, perTeam.get("reportTeamA"));
+        assertEquals(2L, perTeam.get("reportTeamB"));
+    }
+
+    @Test
+    public void 나이대별_회원수() throws Exception {
+        //given
+        memberRepository.save(new Member("report1", 1001));
+        memberRepository.save(new Member("report2", 1009));
+        memberRepository.save(new Member("report3", 1010));
+        em.flush();
+        em.clear();
+
+        //when
+        SortedMap<Integer, Long> histogram = memberReportRepository.ageHistogram(10, 100);
+
+        //then
+        assertEquals(2L, histogram.get(1000));
+        assertEquals(1L, histogram.get(1010));
+    }
+
+    @Test
+    public void 나이대_크기는_1_이상() throws Exception {
+        //@Repository 예외 변환으로 IllegalArgumentException -> InvalidDataAccessApiUsageException
+        assertThrows(InvalidDataAccessApiUsageException.class, () -> memberReportRepository.ageHistogram(0, 100));
+    }
+
+    @Test
+    public void 엔티티를_읽어도_영속성_컨텍스트에_쌓이지_않음() throws Exception {
+        //given
+        for (int i = 0; i < 10; i++) {
+            memberRepository.save(new Member("report" + i, 20));
+        }
+        em.flush();
+        em.clear();
+        String jpql = "select m from Member m where m.username like 'report%'";
+
+        //when 같은 엔티티 쿼리를 StatelessSession 으로 스크롤
+        AtomicLong rows = new AtomicLong();
+        memberReportRepository.scroll(jpql, Member.class, 3, member -> rows.incrementAndGet());
+
+        //then
+        assertTrue(rows.get() >= 10);
+        assertEquals(0, em.unwrap(Session.class).getStatistics().getEntityCount());
+
+        //when 비교 : 같은 쿼리를 영속성 컨텍스트로 조회하면 읽은 만큼 쌓임
+        em.createQuery(jpql, Member.class).getResultList();
+
+        //then
+        assertEquals(rows.get(), em.unwrap(Session.class).getStatistics().getEntityCount());
+    }
+}
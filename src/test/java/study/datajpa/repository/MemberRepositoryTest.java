@@ -1,26 +1,42 @@
 package study.datajpa.repository;
 
+import jakarta.persistence.Cache;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.test.annotation.Rollback;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.MemberCursor;
 import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
 import study.datajpa.entity.Team;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static study.datajpa.support.SqlStatementAssertions.assertSelectCount;
 
 @SpringBootTest
+@ActiveProfiles("test")
 @Transactional
 @Rollback(value = false)
 class MemberRepositoryTest {
@@ -223,7 +239,8 @@ class MemberRepositoryTest {
         PageRequest pageRequest = PageRequest.of(0, 3, Sort.by(Sort.Direction.ASC, "username"));
 
         //when
-        Page<Member> page = memberRepository.findByAge(age, pageRequest);
+        /** content 조회 + count 조회 */
+        Page<Member> page = assertSelectCount(2, () -> memberRepository.findByAge(age, pageRequest));
         /** Page의 Map 기능으로 엔티티를 Dto로 변환할 수 있음 */
         Page<MemberDto> memberDtos = page.map(m -> new MemberDto(m.getId(), m.getUsername(), null));
 
@@ -237,6 +254,50 @@ class MemberRepositoryTest {
         assertTrue(page.isFirst());
     }
 
+    @Test
+    public void 키셋_페이징() throws Exception {
+        //given
+        memberRepository.save(new Member("member1", 10));
+        memberRepository.save(new Member("member2", 10));
+        memberRepository.save(new Member("member2", 10));
+        memberRepository.save(new Member("member3", 10));
+        memberRepository.save(new Member("member4", 10));
+
+        //when
+        List<Member> firstPage = memberRepository.findByAgeKeyset(10, null, 2);
+        Member last = firstPage.get(firstPage.size() - 1);
+        MemberCursor cursor = MemberCursor.decode(new MemberCursor(last.getUsername(), last.getId()).encode());
+        List<Member> secondPage = memberRepository.findByAgeKeyset(10, cursor, 2);
+
+        //then
+        List<Member> expected = memberRepository.findByAgeKeyset(10, null, 4);
+        assertEquals(2, firstPage.size());
+        assertEquals(2, secondPage.size());
+        assertEquals(expected.subList(0, 2), firstPage);
+        assertEquals(expected.subList(2, 4), secondPage);
+    }
+
+    @Test
+    public void 윈도우_스크롤() throws Exception {
+        //given
+        for (int i = 0; i < 25; i++) {
+            memberRepository.save(new Member("scroll" + i, 33));
+        }
+
+        //when
+        Window<Member> first = memberRepository.findFirst20ByAgeOrderByUsernameDescIdDesc(33, ScrollPosition.keyset());
+        Member last = first.getContent().get(first.size() - 1);
+        ScrollPosition position = MemberCursor.decode(MemberCursor.after(last).encode()).toScrollPosition();
+        Window<Member> second = memberRepository.findFirst20ByAgeOrderByUsernameDescIdDesc(33, position);
+
+        //then
+        List<Member> expected = memberRepository.findByAgeKeyset(33, null, 1000);
+        assertEquals(20, first.size());
+        assertTrue(first.hasNext());
+        assertEquals(expected.subList(0, 20), first.getContent());
+        assertEquals(expected.subList(20, Math.min(40, expected.size())), second.getContent());
+    }
+
     @Test
     public void bulkUpdate() throws Exception {
         //given
@@ -258,6 +319,89 @@ class MemberRepositoryTest {
         assertEquals(41, result.get(0).getAge());
     }
 
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void bulkUpdate_2차캐시(@Autowired PlatformTransactionManager transactionManager) throws Exception {
+        //given
+        /** 2차 캐시는 커밋 시점에 채워지기 때문에 테스트 트랜잭션 없이 각각 커밋한다. */
+        Team team = teamRepository.save(new Team("teamA"));
+        Member member = memberRepository.save(new Member("member1", 20, team));
+
+        Cache cache = em.getEntityManagerFactory().getCache();
+        assertTrue(cache.contains(Member.class, member.getId()));
+        assertTrue(cache.contains(Team.class, team.getId()));
+
+        //when
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> memberRepository.bulkAgePlus(20));
+
+        //then
+        /** 벌크 연산은 대상 엔티티(Member)의 캐시 영역만 비우고, 관계없는 Team 영역은 그대로 둔다. */
+        assertFalse(cache.contains(Member.class, member.getId()));
+        assertTrue(cache.contains(Team.class, team.getId()));
+        assertEquals(21, memberRepository.findById(member.getId()).get().getAge());
+    }
+
+    @Test
+    public void 다건_조회_입력순서() throws Exception {
+        //given
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            ids.add(memberRepository.save(new Member("multi" + i, 10)).getId());
+        }
+        em.flush();
+        em.clear();
+        Member managed = memberRepository.findById(ids.get(0)).get();
+        List<Long> reversed = new ArrayList<>(ids);
+        Collections.reverse(reversed);
+        reversed.add(-1L);
+
+        //when
+        /** 영속성 컨텍스트에 있는 1건을 빼고 한 번에 조회 (H2 는 배열 파라미터 하나로, 배열을 지원하지 않는 DB 는 128건씩 나눠서) */
+        List<Member> members = assertSelectCount(1, () -> memberRepository.findAllByIdsInOrder(reversed));
+        List<Member> byUsername = memberRepository.findAllByUsernamesInOrder(List.of("multi2", "none", "multi1", "multi0"));
+
+        //then
+        assertEquals(reversed.subList(0, 300), members.subList(0, 300).stream().map(Member::getId).toList());
+        assertNull(members.get(300));
+        assertSame(managed, members.get(299));
+        assertEquals(List.of("multi2", "multi1", "multi0"), byUsername.stream().map(Member::getUsername).toList());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void 다건_조회_2차캐시() throws Exception {
+        //given
+        Member cached = memberRepository.save(new Member("multiCached", 10));
+        assertTrue(em.getEntityManagerFactory().getCache().contains(Member.class, cached.getId()));
+
+        //when
+        List<Member> members = assertSelectCount(0, () -> memberRepository.findAllByIdsInOrder(List.of(cached.getId())));
+
+        //then
+        assertEquals(cached.getId(), members.get(0).getId());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void 쿼리_캐시() throws Exception {
+        //given
+        memberRepository.save(new Member("cachedMember", 10));
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+        //when
+        memberRepository.findByUsername("cachedMember");
+        long hitBefore = statistics.getQueryCacheHitCount();
+        List<Member> cached = memberRepository.findByUsername("cachedMember");
+
+        //then
+        assertEquals(hitBefore + 1, statistics.getQueryCacheHitCount());
+        assertEquals(1, cached.size());
+
+        /** Member 테이블이 변경되면 캐시된 결과는 무효화 된다. */
+        memberRepository.save(new Member("cachedMember", 20));
+        assertEquals(2, memberRepository.findByUsername("cachedMember").size());
+    }
+
     @Test
     public void findFetchJoin() throws Exception {
         //given
@@ -278,7 +422,7 @@ class MemberRepositoryTest {
         em.clear();
 
         //when
-        List<Member> members = memberRepository.findEntityGraphByUsername("member1");
+        List<Member> members = assertSelectCount(1, () -> memberRepository.findEntityGraphByUsername("member1"));
 
         //then
         for (Member member : members) {
@@ -288,6 +432,34 @@ class MemberRepositoryTest {
         }
     }
 
+    @Test
+    public void 연관관계_조회_쿼리수() throws Exception {
+        //given
+        for (int i = 0; i < 5; i++) {
+            Team team = teamRepository.save(new Team("team" + i));
+            memberRepository.save(new Member("member" + i, 10, team));
+        }
+        em.flush();
+        em.clear();
+        em.getEntityManagerFactory().getCache().evictAll();
+
+        //when & then
+        /** fetch join, 엔티티 그래프는 팀까지 한 번에 조회 */
+        assertSelectCount(1, () -> memberRepository.findMemberFetchJoin().forEach(this::touchTeam));
+        em.clear();
+        assertSelectCount(1, () -> memberRepository.findMemberEntityGraph().forEach(this::touchTeam));
+        em.clear();
+        /** 지연 로딩은 회원 조회 1번 + 팀 배치 조회 1번 (default_batch_fetch_size). N+1 이 되면 실패 */
+        em.getEntityManagerFactory().getCache().evictAll();
+        assertSelectCount(2, () -> memberRepository.findMemberCustom().forEach(this::touchTeam));
+    }
+
+    private void touchTeam(Member member) {
+        if (member.getTeam() != null) {
+            member.getTeam().getName();
+        }
+    }
+
     @Test
     public void queryHint() throws Exception {
         //given
@@ -313,8 +485,28 @@ class MemberRepositoryTest {
         em.clear();
 
         //when
-        List<Member> findMember = memberRepository.findLockByUsername("member1");
+        List<Member> findMember = assertSelectCount(1, () -> memberRepository.findLockByUsername("member1"));
+
+    }
+
+    @Test
+    public void projections() throws Exception {
+        //given
+        Member member1 = new Member("member1", 10);
+        memberRepository.save(member1);
+        em.flush();
+        em.clear();
+
+        //when
+        UsernameOnly usernameOnly = memberRepository.findProjectionById(member1.getId(), UsernameOnly.class).get();
+        List<UsernameOnlyDto> dtos = memberRepository.findProjectionsByUsername("member1", UsernameOnlyDto.class);
 
+        //then
+        assertEquals("member1", usernameOnly.getUsername());
+        assertFalse(dtos.isEmpty());
+        dtos.forEach(dto -> assertEquals("member1", dto.getUsername()));
+        /** 엔티티를 만들지 않았기 때문에 영속성 컨텍스트는 비어있다. */
+        assertEquals(0, em.unwrap(Session.class).getStatistics().getEntityCount());
     }
 
     @Test
@@ -326,4 +518,41 @@ class MemberRepositoryTest {
 
         //then
     }
-}
\ No newline at end of file
+
+    @Test
+    public void streamMemberDto() throws Exception {
+        //given
+        Team team = new Team("teamA");
+        teamRepository.save(team);
+        memberRepository.save(new Member("member1", 10, team));
+        memberRepository.save(new Member("member2", 20));
+        em.flush();
+        em.clear();
+
+        //when
+        long streamed;
+        try (Stream<MemberDto> stream = memberRepository.streamMemberDto(1)) {
+            streamed = stream.count();
+        }
+
+        //then
+        assertEquals(memberRepository.count(), streamed);
+    }
+
+    @Test
+    public void forEachMember() throws Exception {
+        //given
+        memberRepository.save(new Member("member1", 10));
+        memberRepository.save(new Member("member2", 20));
+        memberRepository.save(new Member("member3", 30));
+        em.flush();
+        em.clear();
+
+        //when
+        List<Long> visited = new ArrayList<>();
+        memberRepository.forEachMember(2, 2, m -> visited.add(m.getId()));
+
+        //then
+        assertEquals(memberRepository.count(), visited.size());
+    }
+}
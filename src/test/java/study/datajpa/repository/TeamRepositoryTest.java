@@ -0,0 +1,114 @@
+package study.datajpa.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class TeamRepositoryTest {
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Test
+    public void 팀_회원_배치조회() throws Exception {
+        //given
+        long fewTeams = countStatementsWalkingTeams(3);
+        long manyTeams = countStatementsWalkingTeams(20);
+
+        //then
+        /** 팀 조회 1번 + 회원 컬렉션 in 절 조회 1번. 팀 수가 늘어나도 쿼리 수는 그대로 */
+        assertEquals(2, fewTeams);
+        assertEquals(fewTeams, manyTeams);
+    }
+
+    @Test
+    public void 회원_팀_배치조회() throws Exception {
+        //given
+        long fewTeams = countStatementsWalkingMembers(3);
+        long manyTeams = countStatementsWalkingMembers(20);
+
+        //then
+        /** 회원 조회 1번 + 팀 프록시 in 절 조회 1번 */
+        assertEquals(2, fewTeams);
+        assertEquals(fewTeams, manyTeams);
+    }
+
+    @Test
+    public void 팀_페이징_배치조회() throws Exception {
+        //given
+        saveTeams(10);
+        Statistics statistics = prepareStatistics();
+
+        //when
+        teamRepository.findAll(PageRequest.of(0, 5))
+                .forEach(team -> team.getMembers().size());
+
+        //then
+        /** 팀 페이지 + count + 회원 컬렉션 in 절 */
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    private long countStatementsWalkingTeams(int teamCount) {
+        saveTeams(teamCount);
+        Statistics statistics = prepareStatistics();
+
+        List<Team> teams = teamRepository.findAll();
+        for (Team team : teams) {
+            team.getMembers().forEach(Member::getUsername);
+        }
+        return statistics.getPrepareStatementCount();
+    }
+
+    private long countStatementsWalkingMembers(int teamCount) {
+        saveTeams(teamCount);
+        Statistics statistics = prepareStatistics();
+
+        List<Member> members = memberRepository.findMemberCustom();
+        for (Member member : members) {
+            if (member.getTeam() != null) {
+                member.getTeam().getName();
+            }
+        }
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void saveTeams(int teamCount) {
+        for (int i = 0; i < teamCount; i++) {
+            Team team = teamRepository.save(new Team("team" + i));
+            memberRepository.save(new Member("member" + i + "_1", 10, team));
+            memberRepository.save(new Member("member" + i + "_2", 20, team));
+        }
+    }
+
+    /** 영속성 컨텍스트와 2차 캐시를 비워서 실제 DB 조회 쿼리 수만 센다. */
+    private Statistics prepareStatistics() {
+        em.flush();
+        em.clear();
+        em.getEntityManagerFactory().getCache().evictAll();
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
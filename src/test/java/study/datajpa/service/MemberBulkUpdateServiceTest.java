@@ -0,0 +1,122 @@
+package study.datajpa.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import study.datajpa.dto.BulkUpdateProgress;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** 청크마다 커밋되는지 확인해야 하므로 테스트 트랜잭션 없이 실행하고 직접 정리한다. */
+@SpringBootTest
+@ActiveProfiles("test")
+class MemberBulkUpdateServiceTest {
+
+    @Autowired MemberBulkUpdateService memberBulkUpdateService;
+    @Autowired MemberRepository memberRepository;
+    @Autowired EntityManagerFactory emf;
+
+    List<Long> saved = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAllById(saved);
+    }
+
+    @Test
+    public void 청크_단위_벌크_업데이트() throws Exception {
+        //given
+        for (int i = 0; i < 10; i++) {
+            saved.add(memberRepository.save(new Member("bulk" + i, 1000 + i)).getId());
+        }
+        Member untouched = memberRepository.save(new Member("bulkUntouched", 999));
+        saved.add(untouched.getId());
+        memberRepository.findById(untouched.getId());   // 2차 캐시에 올림
+
+        //when
+        List<BulkUpdateProgress> reports = new ArrayList<>();
+        BulkUpdateProgress result = memberBulkUpdateService.bulkAgePlus(1000, 0L, 3, reports::add);
+
+        //then
+        assertTrue(result.isDone());
+        assertEquals(10, result.getUpdatedRows());
+        assertEquals(result.getChunks(), reports.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(1001 + i, memberRepository.findById(saved.get(i)).get().getAge());
+        }
+        assertTrue(emf.getCache().contains(Member.class, untouched.getId()));   // 바뀌지 않은 회원은 캐시에 남아 있음
+        assertEquals(999, memberRepository.findById(untouched.getId()).get().getAge());
+    }
+
+    @Test
+    public void 빈_id_구간은_건너뜀() throws Exception {
+        //given id 사이에 빈 구간이 있는 회원 4명
+        for (int i = 0; i < 4; i++) {
+            saved.add(memberRepository.save(new Member("bulk" + i, 1000)).getId());
+        }
+        memberRepository.deleteAllById(saved.subList(1, 3));
+
+        //when 0 부터 시작해도 남아 있는 회원 기준으로 청크를 나눔
+        BulkUpdateProgress result = memberBulkUpdateService.bulkAgePlus(1000, 0L, 1, progress -> { });
+
+        //then 청크 수는 id 값이 아니라 회원 수만큼
+        assertEquals(memberRepository.count(), result.getChunks());
+        assertEquals(1001, memberRepository.findById(saved.get(0)).get().getAge());
+        assertEquals(1001, memberRepository.findById(saved.get(3)).get().getAge());
+    }
+
+    @Test
+    public void 캐시된_쿼리_결과_무효화() throws Exception {
+        //given 쿼리 캐시에 올림
+        saved.add(memberRepository.save(new Member("bulkQueryCache", 1000)).getId());
+        memberRepository.findByUsername("bulkQueryCache");
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        long hitsBefore = statistics.getQueryCacheHitCount();
+        memberRepository.findByUsername("bulkQueryCache");
+        assertEquals(hitsBefore + 1, statistics.getQueryCacheHitCount());
+
+        //when
+        memberBulkUpdateService.bulkAgePlus(1000, saved.get(0), 10, progress -> { });
+
+        //then member 테이블이 바뀌었으므로 캐시된 결과를 쓰지 않고 다시 조회
+        long hitsAfterUpdate = statistics.getQueryCacheHitCount();
+        assertEquals(1001, memberRepository.findByUsername("bulkQueryCache").get(0).getAge());
+        assertEquals(hitsAfterUpdate, statistics.getQueryCacheHitCount());
+    }
+
+    @Test
+    public void 실패후_재시작() throws Exception {
+        //given
+        for (int i = 0; i < 10; i++) {
+            saved.add(memberRepository.save(new Member("bulk" + i, 1000)).getId());
+        }
+        long failAfter = saved.get(4);
+        List<BulkUpdateProgress> reports = new ArrayList<>();
+
+        //when
+        assertThrows(IllegalStateException.class, () ->
+                memberBulkUpdateService.bulkAgePlus(1000, saved.get(0), 2, progress -> {
+                    reports.add(progress);
+                    if (progress.getNextFromId() > failAfter) {
+                        throw new IllegalStateException("중단");
+                    }
+                }));
+        BulkUpdateProgress lastCommitted = reports.get(reports.size() - 1);
+        memberBulkUpdateService.bulkAgePlus(1000, lastCommitted.getNextFromId(), 2, progress -> { });
+
+        //then
+        for (Long id : saved) {
+            assertEquals(1001, memberRepository.findById(id).get().getAge());   // 재시작해도 한 번씩만 증가
+        }
+    }
+}
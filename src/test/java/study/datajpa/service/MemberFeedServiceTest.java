@@ -0,0 +1,104 @@
+package study.datajpa.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.context.ActiveProfiles;
+import study.datajpa.dto.MemberCursorPage;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+import static study.datajpa.support.SqlStatementAssertions.assertSelectCount;
+
+/**
+ * 미리 조회는 다른 스레드(커넥션)에서 하기 때문에 데이터를 커밋해야 한다.
+ * 리포지토리를 @SpyBean 으로 바꾸면 컨텍스트가 따로 뜨기 때문에 DB 도 따로 사용
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:member-feed;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+class MemberFeedServiceTest {
+
+    static final int AGE = 555;
+
+    @Autowired MemberFeedService memberFeedService;
+    @SpyBean MemberRepository memberRepository;
+
+    @Autowired EntityManagerFactory emf;
+
+    List<Long> saved = new ArrayList<>();
+
+    /** 2차 캐시(JCache 기본 CacheManager)는 JVM 안의 모든 컨텍스트가 같이 쓰기 때문에, 다른 DB 의 같은 id 회원이 캐시에 남아 있을 수 있음 */
+    @BeforeEach
+    void evictSecondLevelCache() {
+        emf.getCache().evictAll();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAllById(saved);
+    }
+
+    @Test
+    public void 다음_윈도우_미리_조회() throws Exception {
+        //given
+        for (int i = 0; i < 30; i++) {
+            saved.add(memberRepository.save(new Member("feed" + i, AGE)).getId());
+        }
+
+        //when
+        MemberCursorPage first = memberFeedService.feed(AGE, null);
+        memberFeedService.prefetch(AGE, first.getNext()).join();    // 백그라운드 조회가 끝날 때까지 대기
+        MemberCursorPage second = assertSelectCount(0, () -> memberFeedService.feed(AGE, first.getNext()));
+
+        //then
+        assertEquals(20, first.getContent().size());
+        assertEquals(10, second.getContent().size());
+        assertNull(second.getNext());
+    }
+
+    @Test
+    public void 미리_조회가_실패하면_다시_조회() throws Exception {
+        //given
+        for (int i = 0; i < 30; i++) {
+            saved.add(memberRepository.save(new Member("feed" + i, AGE)).getId());
+        }
+        /** 리포지토리는 인터페이스 프록시라서 callRealMethod 대신 원래 빈에 위임하는 기본 응답을 사용 */
+        Answer<?> real = mockingDetails(memberRepository).getMockCreationSettings().getDefaultAnswer();
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (calls.incrementAndGet() == 2) {     // 첫 윈도우를 돌려줄 때 시작한 미리 조회
+                release.await(10, TimeUnit.SECONDS);
+                throw new QueryTimeoutException("prefetch");
+            }
+            return real.answer(invocation);
+        }).when(memberRepository).findFirst20ByAgeOrderByUsernameDescIdDesc(anyInt(), any());
+        MemberCursorPage first = memberFeedService.feed(AGE, null);
+
+        //when 미리 조회가 끝나기 전에 다음 윈도우를 요청하고, 기다리는 동안 미리 조회가 실패함
+        CompletableFuture.delayedExecutor(200, TimeUnit.MILLISECONDS).execute(release::countDown);
+        MemberCursorPage second = memberFeedService.feed(AGE, first.getNext());
+
+        //then 요청 스레드에서 다시 조회
+        assertEquals(10, second.getContent().size());
+        assertEquals(3, calls.get());
+    }
+}
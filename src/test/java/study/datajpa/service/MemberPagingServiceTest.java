@@ -0,0 +1,93 @@
+package study.datajpa.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.service.MemberPagingService.CountMode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** count 캐시는 커밋 시점에 무효화되기 때문에 테스트 트랜잭션 없이 실행하고 직접 정리한다. */
+@SpringBootTest
+@ActiveProfiles("test")
+class MemberPagingServiceTest {
+
+    static final int AGE = 777;
+
+    @Autowired MemberPagingService memberPagingService;
+    @Autowired MemberRepository memberRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    List<Long> saved = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAllById(saved);
+    }
+
+    @Test
+    public void 병렬_count_페이징() throws Exception {
+        //given
+        for (int i = 0; i < 5; i++) {
+            saved.add(memberRepository.save(new Member("paging" + i, AGE)).getId());
+        }
+
+        //when
+        Page<Member> parallel = memberPagingService.findByAge(AGE, PageRequest.of(0, 2), CountMode.PARALLEL);
+        Page<Member> exact = memberPagingService.findByAge(AGE, PageRequest.of(0, 2), CountMode.EXACT);
+
+        //then
+        assertEquals(2, parallel.getContent().size());
+        assertEquals(5, parallel.getTotalElements());
+        assertEquals(exact.getTotalElements(), parallel.getTotalElements());
+        assertEquals(3, parallel.getTotalPages());
+    }
+
+    @Test
+    public void 병렬_count_마지막_페이지() throws Exception {
+        //given
+        for (int i = 0; i < 3; i++) {
+            saved.add(memberRepository.save(new Member("paging" + i, AGE)).getId());
+        }
+
+        //when 내용만으로 전체 수를 알 수 있어서 count 는 취소됨
+        Page<Member> page = memberPagingService.findByAge(AGE, PageRequest.of(0, 10), CountMode.PARALLEL);
+
+        //then
+        assertEquals(3, page.getTotalElements());
+        assertEquals(1, page.getTotalPages());
+    }
+
+    @Test
+    public void 캐시_count_무효화() throws Exception {
+        //given
+        saved.add(memberRepository.save(new Member("paging0", AGE)).getId());
+        assertEquals(1, memberPagingService.cachedCountByAge(AGE));
+
+        //when 저장
+        Member member = memberRepository.save(new Member("paging1", AGE));
+        saved.add(member.getId());
+
+        //then
+        assertEquals(2, memberPagingService.cachedCountByAge(AGE));
+        assertEquals(2, memberPagingService.findByAge(AGE, PageRequest.of(0, 1), CountMode.CACHED).getTotalElements());
+
+        //when 나이 변경 (변경 감지)
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                memberRepository.findById(member.getId()).get().setAge(AGE + 1));
+
+        //then
+        assertEquals(1, memberPagingService.cachedCountByAge(AGE));
+    }
+}
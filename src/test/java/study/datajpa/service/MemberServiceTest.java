@@ -0,0 +1,134 @@
+package study.datajpa.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.LongConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static study.datajpa.support.SqlStatementAssertions.assertUpdateCount;
+
+/**
+ * 여러 스레드가 각자 트랜잭션으로 같은 회원을 수정하기 때문에 테스트 트랜잭션 없이 실행하고 직접 정리한다.
+ * 재시도를 다 쓰는 일이 없도록 재시도 횟수를 늘렸기 때문에 컨텍스트가 따로 떠서 DB 도 따로 사용
+ */
+@SpringBootTest(properties = {
+        "datajpa.retry.optimistic-lock.max-attempts=" + MemberServiceTest.MAX_ATTEMPTS,
+        "spring.datasource.url=jdbc:h2:mem:member-service;DB_CLOSE_DELAY=-1"
+})
+@ActiveProfiles("test")
+class MemberServiceTest {
+
+    static final int MAX_ATTEMPTS = 50;
+
+    static final int THREADS = 8;
+    static final int UPDATES_PER_THREAD = 5;
+
+    @Autowired MemberService memberService;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired MeterRegistry meterRegistry;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    List<Long> saved = new ArrayList<>();
+    List<Long> savedTeams = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAllById(saved);
+        teamRepository.deleteAllById(savedTeams);
+    }
+
+    @Test
+    public void 낙관적_락_재시도() throws Exception {
+        //given
+        Member member = memberRepository.save(new Member("member1", 0));
+        saved.add(member.getId());
+        assertEquals(0L, member.getVersion());
+
+        double conflictsBefore = counter("optimistic.lock.conflicts");
+        double exhaustedBefore = counter("optimistic.lock.retries", "outcome", "exhausted");
+
+        //when
+        runConcurrently(id -> memberService.addAge(id, 1), member.getId());
+
+        //then 충돌은 났지만 재시도로 모두 성공했고, 수정이 하나도 사라지지 않음 (lost update 없음)
+        Member result = memberRepository.findById(member.getId()).get();
+        assertEquals(THREADS * UPDATES_PER_THREAD, result.getAge());
+        assertEquals(THREADS * UPDATES_PER_THREAD, result.getVersion());
+        assertTrue(counter("optimistic.lock.conflicts") > conflictsBefore);
+        assertEquals(exhaustedBefore, counter("optimistic.lock.retries", "outcome", "exhausted"));
+    }
+
+    @Test
+    public void 팀에_회원을_추가해도_팀_version_은_그대로() throws Exception {
+        //given
+        Team team = teamRepository.save(new Team("teamA"));
+        savedTeams.add(team.getId());
+
+        //when 영속 상태의 팀에 회원 추가 (team.members 컬렉션이 바뀜)
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        assertUpdateCount(0, () -> tx.executeWithoutResult(status -> {
+            Team managedTeam = teamRepository.findById(team.getId()).get();
+            managedTeam.getMembers().size();    // 회원 목록을 이미 읽은 팀 (컬렉션이 dirty 가 됨)
+            saved.add(memberRepository.save(new Member("member1", 10, managedTeam)).getId());
+        }));
+
+        //then 같은 팀에 동시에 회원을 추가해도 OptimisticLockException 이 나지 않음
+        assertEquals(team.getVersion(), teamRepository.findById(team.getId()).get().getVersion());
+    }
+
+    @Test
+    public void 비관적_락() throws Exception {
+        //given
+        Member member = memberRepository.save(new Member("member1", 0));
+        saved.add(member.getId());
+
+        //when
+        runConcurrently(id -> memberService.addAgePessimistic(id, 1), member.getId());
+
+        //then
+        assertEquals(THREADS * UPDATES_PER_THREAD, memberRepository.findById(member.getId()).get().getAge());
+    }
+
+    private double counter(String name, String... tags) {
+        var counter = meterRegistry.find(name).tag("method", "MemberService.addAge").tags(tags).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private void runConcurrently(LongConsumer update, long memberId) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < UPDATES_PER_THREAD; j++) {
+                        update.accept(memberId);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
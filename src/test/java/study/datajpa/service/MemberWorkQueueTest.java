@@ -0,0 +1,90 @@
+package study.datajpa.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 워커마다 자기 트랜잭션(커넥션)으로 선점하기 때문에 테스트 트랜잭션 없이 실행하고 직접 정리한다.
+ * 처리 안 된 회원을 모두 선점하기 때문에 다른 테스트의 회원을 건드리지 않도록 DB 를 따로 사용
+ * 워커 수별 처리량은 WorkQueueBenchmark 로 측정
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:work-queue;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+class MemberWorkQueueTest {
+
+    static final int BACKLOG = 200;
+    static final int BATCH_SIZE = 10;
+    static final int WORKERS = 4;
+
+    @Autowired MemberWorkQueue memberWorkQueue;
+    @Autowired MemberRepository memberRepository;
+
+    List<Long> saved = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAllById(saved);
+    }
+
+    @Test
+    public void 여러_워커가_나눠서_한번씩_처리() throws Exception {
+        //given
+        for (int i = 0; i < BACKLOG; i++) {
+            saved.add(memberRepository.save(new Member("work" + i, 20)).getId());
+        }
+
+        //when
+        Set<Long> processed = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+        drain(WORKERS, member -> {
+            if (!processed.add(member.getId())) {
+                duplicates.incrementAndGet();
+            }
+            sleep(1);   // 회원 한 명당 처리 시간. 워커들의 트랜잭션이 겹치게 함
+        });
+
+        //then 같은 회원을 두 워커가 처리하지 않고, 남김없이 처리함
+        assertEquals(0, duplicates.get());
+        assertTrue(processed.containsAll(saved));
+        saved.forEach(id -> assertNotNull(memberRepository.findById(id).get().getProcessedDate()));
+    }
+
+    /** workers 개의 스레드가 남은 작업이 없을 때까지 processNext 를 반복 */
+    private void drain(int workers, Consumer<Member> processor) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < workers; i++) {
+                futures.add(pool.submit(() -> {
+                    while (memberWorkQueue.processNext(BATCH_SIZE, processor) > 0) {
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
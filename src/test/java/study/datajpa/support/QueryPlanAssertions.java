@@ -0,0 +1,88 @@
+package study.datajpa.support;
+
+import com.p6spy.engine.common.PreparedStatementInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 블록 안에서 실행된 조회 SQL 의 실행 계획(H2 EXPLAIN)을 확인한다. 인덱스를 지우거나 쿼리를 바꿔서 풀 스캔이 되면 실패.
+ * 파라미터 값이 들어간 SQL 은 p6spy 리스너로 잡기 때문에 테스트 클래스에 @Import(QueryPlanAssertions.Config.class) 가 필요하다.
+ *
+ * assertUsesIndex(em, "idx_member_username", () -> memberRepository.findListByUsername("member1"));
+ */
+public final class QueryPlanAssertions {
+
+    private static final ThreadLocal<List<String>> captured = new ThreadLocal<>();
+
+    private QueryPlanAssertions() {
+    }
+
+    public static void assertUsesIndex(EntityManager em, String indexName, Runnable block) {
+        List<String> plans = explain(em, block);
+        for (String plan : plans) {
+            assertTrue(plan.toLowerCase().contains(indexName.toLowerCase()),
+                    "인덱스 " + indexName + " 를 사용하지 않음:\n" + plan);
+            assertFalse(plan.contains(".tableScan"), "풀 스캔:\n" + plan);
+        }
+    }
+
+    /** 블록에서 실행된 select 마다 실행 계획 한 개 */
+    public static List<String> explain(EntityManager em, Runnable block) {
+        List<String> sqls = new ArrayList<>();
+        captured.set(sqls);
+        try {
+            block.run();
+        } finally {
+            captured.remove();
+        }
+        assertFalse(sqls.isEmpty(), "실행된 조회 SQL 이 없음 (쿼리 캐시/2차 캐시에서 읽었는지 확인)");
+        return sqls.stream()
+                .map(sql -> em.unwrap(Session.class).doReturningWork(connection -> {
+                    try (Statement statement = connection.createStatement();
+                         ResultSet rs = statement.executeQuery("explain " + sql)) {
+                        rs.next();
+                        return rs.getString(1);
+                    }
+                }))
+                .toList();
+    }
+
+    @TestConfiguration
+    public static class Config {
+        @Bean
+        public JdbcEventListener sqlCapturingListener() {
+            return new JdbcEventListener() {
+                @Override
+                public void onAfterExecuteQuery(PreparedStatementInformation statementInformation,
+                                                long timeElapsedNanos, SQLException e) {
+                    capture(statementInformation);
+                }
+
+                @Override
+                public void onAfterExecuteQuery(StatementInformation statementInformation, long timeElapsedNanos,
+                                                String sql, SQLException e) {
+                    capture(statementInformation);
+                }
+            };
+        }
+
+        private static void capture(StatementInformation statementInformation) {
+            List<String> sqls = captured.get();
+            if (sqls != null) {
+                sqls.add(statementInformation.getSqlWithValues());
+            }
+        }
+    }
+}
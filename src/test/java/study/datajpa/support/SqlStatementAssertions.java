@@ -0,0 +1,63 @@
+package study.datajpa.support;
+
+import study.datajpa.metrics.SqlStatementCount;
+import study.datajpa.metrics.SqlStatementCounter;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 블록 안에서 실행된 SQL 수를 검증한다. (N+1 등 쿼리 수가 늘어나는 변경을 테스트에서 잡기 위함)
+ * 현재 스레드에서 하이버네이트가 실행한 SQL 만 센다. 쓰기 지연된 insert/update 는 flush 해야 실행되므로 블록 안에서 flush 할 것.
+ *
+ * List<Member> members = assertSelectCount(1, () -> memberRepository.findMemberFetchJoin());
+ */
+public final class SqlStatementAssertions {
+
+    private SqlStatementAssertions() {
+    }
+
+    public static SqlStatementCount countStatements(Runnable block) {
+        SqlStatementCount before = SqlStatementCounter.current();
+        block.run();
+        return SqlStatementCounter.current().minus(before);
+    }
+
+    public static <T> T assertSelectCount(long expected, Supplier<T> block) {
+        SqlStatementCount before = SqlStatementCounter.current();
+        T result = block.get();
+        SqlStatementCount executed = SqlStatementCounter.current().minus(before);
+        assertEquals(expected, executed.getSelect(), () -> "select 수가 다릅니다. 실행된 SQL : " + executed);
+        return result;
+    }
+
+    public static void assertSelectCount(long expected, Runnable block) {
+        assertSelectCount(expected, () -> {
+            block.run();
+            return null;
+        });
+    }
+
+    public static void assertInsertCount(long expected, Runnable block) {
+        SqlStatementCount executed = countStatements(block);
+        assertEquals(expected, executed.getInsert(), () -> "insert 수가 다릅니다. 실행된 SQL : " + executed);
+    }
+
+    public static void assertUpdateCount(long expected, Runnable block) {
+        SqlStatementCount executed = countStatements(block);
+        assertEquals(expected, executed.getUpdate(), () -> "update 수가 다릅니다. 실행된 SQL : " + executed);
+    }
+
+    public static void assertDeleteCount(long expected, Runnable block) {
+        SqlStatementCount executed = countStatements(block);
+        assertEquals(expected, executed.getDelete(), () -> "delete 수가 다릅니다. 실행된 SQL : " + executed);
+    }
+
+    /** 종류와 상관없이 전체 SQL 수가 max 이하인지 검증 */
+    public static void assertMaxStatements(long max, Runnable block) {
+        SqlStatementCount executed = countStatements(block);
+        assertTrue(executed.getTotal() <= max, () -> "SQL 수가 " + max + " 를 넘었습니다. 실행된 SQL : " + executed);
+    }
+}
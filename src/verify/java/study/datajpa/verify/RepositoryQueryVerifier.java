@@ -0,0 +1,129 @@
+package study.datajpa.verify;
+
+import jakarta.persistence.NamedQuery;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.type.filter.AssignableTypeFilter;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.query.Procedure;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.core.RepositoryMetadata;
+import org.springframework.data.repository.core.support.AbstractRepositoryMetadata;
+import org.springframework.data.repository.query.DefaultParameters;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.util.ClassUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 빌드할 때 리포지토리 쿼리 메소드 이름을 검증한다. (./gradlew verifyRepositoryQueries, check 에 포함)
+ * 스프링 데이터는 애플리케이션이 뜰 때 메소드 이름을 파싱(PartTree)하기 때문에 잘못된 이름/없는 프로퍼티는 시작할 때 실패한다.
+ * fast-startup 프로필(lazy 리포지토리)에서는 처음 호출할 때까지 드러나지 않기 때문에 빌드에서 미리 잡는다.
+ *
+ * 검증 대상 : @Query, @Procedure, 같은 이름의 NamedQuery(엔티티.메소드), 기본 구현(SimpleJpaRepository) 메소드를 제외한 쿼리 메소드
+ * 1. 메소드 이름을 PartTree 로 파싱 (조건의 프로퍼티 경로가 엔티티에 있는지 포함)
+ * 2. 조건에 필요한 인자 수와 메소드 파라미터 수 (Pageable, Sort, ScrollPosition, 동적 Projection 타입 제외)
+ * @Query 의 JPQL 은 EntityManagerFactory 가 있어야 검증할 수 있기 때문에 대상이 아니다. (애플리케이션 시작/테스트에서 검증됨)
+ *
+ * args : 스캔할 패키지, 결과를 쓸 파일
+ */
+public class RepositoryQueryVerifier {
+
+    public static void main(String[] args) throws IOException, ClassNotFoundException {
+        String basePackage = args[0];
+        Path report = Path.of(args[1]);
+
+        List<String> lines = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        for (Class<?> repositoryInterface : repositoryInterfaces(basePackage)) {
+            RepositoryMetadata metadata = AbstractRepositoryMetadata.getMetadata(repositoryInterface);
+            Class<?> domainType = metadata.getDomainType();
+            Set<String> namedQueries = Arrays.stream(domainType.getAnnotationsByType(NamedQuery.class))
+                    .map(NamedQuery::name)
+                    .collect(Collectors.toSet());
+
+            for (Method method : queryMethods(repositoryInterface)) {
+                String name = repositoryInterface.getSimpleName() + "." + method.getName();
+                if (namedQueries.contains(domainType.getSimpleName() + "." + method.getName())) {
+                    lines.add(name + " : named query");
+                    continue;
+                }
+                try {
+                    lines.add(name + " : " + verify(method, domainType));
+                } catch (RuntimeException e) {
+                    errors.add(name + " : " + e.getMessage());
+                }
+            }
+        }
+
+        lines.addAll(errors);
+        Files.createDirectories(report.getParent());
+        Files.write(report, lines);
+        if (!errors.isEmpty()) {
+            errors.forEach(System.err::println);
+            System.exit(1);
+        }
+        System.out.println(lines.size() + " repository query methods verified : " + report);
+    }
+
+    /** 필요한 인자 수를 돌려준다. 잘못된 이름이면 PartTree 에서 예외 */
+    private static String verify(Method method, Class<?> domainType) {
+        PartTree tree = new PartTree(method.getName(), domainType);
+        int required = tree.getParts().stream().mapToInt(Part::getNumberOfArguments).sum();
+        int bindable = new DefaultParameters(method).getBindableParameters().getNumberOfParameters();
+        if (bindable < required) {
+            throw new IllegalStateException("조건에 필요한 인자는 " + required + "개인데 파라미터는 " + bindable + "개");
+        }
+        return "derived (" + required + " args)";
+    }
+
+    private static List<Class<?>> repositoryInterfaces(String basePackage) throws ClassNotFoundException {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false) {
+            @Override
+            protected boolean isCandidateComponent(AnnotatedBeanDefinition beanDefinition) {
+                return beanDefinition.getMetadata().isInterface();
+            }
+        };
+        scanner.addIncludeFilter(new AssignableTypeFilter(Repository.class));
+
+        List<Class<?>> interfaces = new ArrayList<>();
+        for (var candidate : scanner.findCandidateComponents(basePackage)) {
+            interfaces.add(ClassUtils.forName(candidate.getBeanClassName(), RepositoryQueryVerifier.class.getClassLoader()));
+        }
+        interfaces.sort(Comparator.comparing(Class::getName));
+        return interfaces;
+    }
+
+    /** 리포지토리 인터페이스에 선언된 메소드 중 스프링 데이터가 쿼리를 만들어야 하는 것 */
+    private static List<Method> queryMethods(Class<?> repositoryInterface) {
+        return Arrays.stream(repositoryInterface.getMethods())
+                .filter(method -> Repository.class.isAssignableFrom(method.getDeclaringClass()))
+                .filter(method -> !method.getDeclaringClass().getName().startsWith("org.springframework.data."))
+                .filter(method -> !method.isDefault() && !Modifier.isStatic(method.getModifiers()))
+                .filter(method -> !AnnotatedElementUtils.hasAnnotation(method, Query.class))
+                .filter(method -> !AnnotatedElementUtils.hasAnnotation(method, Procedure.class))
+                .filter(method -> !isBaseMethod(method))
+                .sorted(Comparator.comparing(Method::getName))
+                .toList();
+    }
+
+    /** findAll 처럼 기본 구현 메소드를 다시 선언한 경우 (@EntityGraph 등을 붙이려고) */
+    private static boolean isBaseMethod(Method method) {
+        return Arrays.stream(SimpleJpaRepository.class.getMethods())
+                .anyMatch(base -> base.getName().equals(method.getName())
+                        && base.getParameterCount() == method.getParameterCount());
+    }
+}